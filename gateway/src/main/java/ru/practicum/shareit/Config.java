@@ -2,4 +2,6 @@ package ru.practicum.shareit;
 
 public class Config {
     public static final String userHeaderName = "X-Sharer-User-Id";
+    public static final String ndjsonMediaType = "application/x-ndjson";
+    public static final String csvMediaType = "text/csv";
 }
@@ -4,43 +4,69 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.StreamingClient;
+
+import java.util.List;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private final StreamingClient streaming;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder, WebClient.Builder webClientBuilder) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
+        streaming = new StreamingClient(webClientBuilder.baseUrl(serverUrl + API_PREFIX).build());
     }
 
     public ResponseEntity<Object> create(BookingInputDto dto, Long userId) {
         return post("", userId, dto);
     }
 
+    public ResponseEntity<Object> createAll(List<BookingInputDto> dtos, Long userId) {
+        return post("/batch", userId, dtos);
+    }
+
     public ResponseEntity<Object> approve(Long id, Boolean approved, Long userId) {
         return patch("/" + id + "?approved=" + approved, userId, null);
     }
 
+    public ResponseEntity<Object> approveAll(List<Long> ids, Boolean approved, Long userId) {
+        return patch("/batch?approved=" + approved, userId, ids);
+    }
+
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> streamOwnerEvents(Long userId) {
+        return streaming.events("/owner/stream", userId);
+    }
+
     public ResponseEntity<Object> get(Long id, Long userId) {
         return get("/" + id, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(Integer from, Integer size, State state, Long userId) {
-        return get("/owner?from=" + from + "&size=" + size + "&state=" + state, userId);
+    public ResponseEntity<Object> getBookingsByOwner(Integer from, Integer size, String cursor, State state, Long userId) {
+        return get("/owner?from=" + from + "&size=" + size + cursorParameter(cursor) + "&state=" + state, userId);
+    }
+
+    public ResponseEntity<Object> getBookingsByBooker(Integer from, Integer size, String cursor, State state, Long userId) {
+        return get("?from=" + from + "&size=" + size + cursorParameter(cursor) + "&state=" + state, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByBooker(Integer from, Integer size, State state, Long userId) {
-        return get("?from=" + from + "&size=" + size + "&state=" + state, userId);
+    private String cursorParameter(String cursor) {
+        return cursor != null ? "&cursor=" + cursor : "";
     }
 }
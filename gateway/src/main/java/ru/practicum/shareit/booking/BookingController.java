@@ -4,15 +4,20 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.Config;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.exception.UnsupportedStateMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import javax.validation.Valid;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -35,12 +40,30 @@ public class BookingController {
 		return client.create(dto, userId);
 	}
 
+	@PostMapping("batch")
+	public ResponseEntity<Object> createAll(@RequestBody List<BookingInputDto> dtos, @RequestHeader(Config.userHeaderName) Long userId) {
+		log.info("Create {} bookings, userId={}", dtos.size(), userId);
+		return client.createAll(dtos, userId);
+	}
+
 	@PatchMapping("{id}")
 	public ResponseEntity<Object> approve(@PathVariable Long id, @RequestParam(defaultValue = "true") Boolean approved, @RequestHeader(Config.userHeaderName) Long userId) {
 		log.info("Change booking {}, userId={}, approved={}", id, userId, approved);
 		return client.approve(id, approved, userId);
 	}
 
+	@PatchMapping("batch")
+	public ResponseEntity<Object> approveAll(@RequestBody List<Long> ids, @RequestParam(defaultValue = "true") Boolean approved, @RequestHeader(Config.userHeaderName) Long userId) {
+		log.info("Change {} bookings, userId={}, approved={}", ids.size(), userId, approved);
+		return client.approveAll(ids, approved, userId);
+	}
+
+	@GetMapping(path = "owner/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> streamOwnerEvents(@RequestHeader(Config.userHeaderName) Long userId) {
+		log.info("Stream booking events of owner {}", userId);
+		return client.streamOwnerEvents(userId);
+	}
+
 	@GetMapping("{id}")
 	public ResponseEntity<Object> get(@PathVariable Long id, @RequestHeader(Config.userHeaderName) Long userId) {
 		log.info("Get booking {}, userId={}", id, userId);
@@ -48,7 +71,7 @@ public class BookingController {
 	}
 
 	@GetMapping("owner")
-	public ResponseEntity<Object> getBookingsByOwner(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(defaultValue = "ALL") String state, @RequestHeader(Config.userHeaderName) Long userId) {
+	public ResponseEntity<Object> getBookingsByOwner(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "ALL") String state, @RequestHeader(Config.userHeaderName) Long userId) {
 		var realState = State.from(state);
 		if (realState.isEmpty()) {
 			return new ResponseEntity<>(new UnsupportedStateMessage("Unknown state: " + state), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -56,12 +79,12 @@ public class BookingController {
 		if (size <= 0 || from < 0) {
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
-		log.info("Get booking by owner {}, from={}, size={}, state={}", userId, from, size, state);
-		return client.getBookingsByOwner(from, size, realState.get(), userId);
+		log.info("Get booking by owner {}, from={}, size={}, cursor={}, state={}", userId, from, size, cursor, state);
+		return client.getBookingsByOwner(from, size, cursor, realState.get(), userId);
 	}
 
 	@GetMapping
-	public ResponseEntity<Object> getBookingsByBooker(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(defaultValue = "ALL") String state, @RequestHeader(Config.userHeaderName) Long userId) {
+	public ResponseEntity<Object> getBookingsByBooker(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "ALL") String state, @RequestHeader(Config.userHeaderName) Long userId) {
 		var realState = State.from(state);
 		if (realState.isEmpty()) {
 			return new ResponseEntity<>(new UnsupportedStateMessage("Unknown state: " + state), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -69,7 +92,7 @@ public class BookingController {
 		if (size <= 0 || from < 0) {
 			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
 		}
-		log.info("Get booking by booker {}, from={}, size={}, state={}", userId, from, size, state);
-		return client.getBookingsByBooker(from, size, realState.get(), userId);
+		log.info("Get booking by booker {}, from={}, size={}, cursor={}, state={}", userId, from, size, cursor, state);
+		return client.getBookingsByBooker(from, size, cursor, realState.get(), userId);
 	}
 }
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.practicum.shareit.Config;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Proxies long-lived responses and large uploads of the server without buffering the whole body,
+ * which {@link BaseClient} cannot do.
+ */
+public class StreamingClient {
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> EVENT_TYPE = new ParameterizedTypeReference<>() {
+    };
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+
+    protected final WebClient client;
+
+    public StreamingClient(WebClient client) {
+        this.client = client;
+    }
+
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> events(String path, Long userId) {
+        return client.get()
+                .uri(path)
+                .header(Config.userHeaderName, String.valueOf(userId))
+                .accept(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_JSON)
+                .retrieve()
+                .toEntityFlux(EVENT_TYPE)
+                .map(response -> ResponseEntity.status(response.getStatusCode())
+                        .contentType(MediaType.TEXT_EVENT_STREAM)
+                        .body(response.getBody()))
+                .onErrorResume(WebClientResponseException.class, e -> Mono.just(ResponseEntity.status(e.getRawStatusCode())
+                        .body(Flux.just(ServerSentEvent.builder(e.getResponseBodyAsString(StandardCharsets.UTF_8)).event("error").build()))));
+    }
+
+    /**
+     * Forwards {@code body} to the server in chunks as it is read. The blocking reads
+     * run on the bounded elastic scheduler, never on the event loop.
+     */
+    public Mono<ResponseEntity<Object>> upload(String path, Long userId, MediaType contentType, InputStream body) {
+        var content = DataBufferUtils.readInputStream(() -> body, DefaultDataBufferFactory.sharedInstance, UPLOAD_BUFFER_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
+        return client.post()
+                .uri(path)
+                .header(Config.userHeaderName, String.valueOf(userId))
+                .contentType(contentType)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromDataBuffers(content))
+                .retrieve()
+                .toEntity(Object.class)
+                .map(response -> ResponseEntity.status(response.getStatusCode()).body(response.getBody()))
+                .onErrorResume(WebClientResponseException.class, e -> Mono.just(ResponseEntity.status(e.getRawStatusCode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(e.getResponseBodyAsString(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * Copies the response body of the server to the client chunk by chunk as it arrives.
+     */
+    public Mono<ResponseEntity<StreamingResponseBody>> download(String path, Long userId, MediaType mediaType) {
+        return client.get()
+                .uri(path)
+                .headers(headers -> {
+                    if (userId != null) {
+                        headers.set(Config.userHeaderName, String.valueOf(userId));
+                    }
+                })
+                .accept(mediaType, MediaType.APPLICATION_JSON)
+                .retrieve()
+                .toEntityFlux(DataBuffer.class)
+                .map(response -> ResponseEntity.status(response.getStatusCode())
+                        .contentType(mediaType)
+                        .body((StreamingResponseBody) output -> DataBufferUtils.write(response.getBody(), output)
+                                .doOnNext(DataBufferUtils::release)
+                                .blockLast()))
+                .onErrorResume(WebClientResponseException.class, e -> Mono.just(ResponseEntity.status(e.getRawStatusCode())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(output -> output.write(e.getResponseBodyAsByteArray()))));
+    }
+}
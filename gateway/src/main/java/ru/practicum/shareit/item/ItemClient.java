@@ -3,36 +3,68 @@ package ru.practicum.shareit.item;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.Config;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.StreamingClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemInputDto;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final StreamingClient streaming;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder, WebClient.Builder webClientBuilder) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
+        streaming = new StreamingClient(webClientBuilder.baseUrl(serverUrl + API_PREFIX).build());
     }
 
     public ResponseEntity<Object> get(Long id, Long userId) {
         return get("/" + id, userId);
     }
 
+    public ResponseEntity<Object> getAvailability(Long id, LocalDateTime from, LocalDateTime to, Long userId) {
+        return get("/" + id + "/availability?from=" + from + "&to=" + to, userId);
+    }
+
+    public ResponseEntity<Object> getComments(Long id, Integer size, String cursor) {
+        if (cursor == null) {
+            return get("/" + id + "/comments?size={size}", null, Map.of("size", size));
+        }
+        return get("/" + id + "/comments?size={size}&cursor={cursor}", null, Map.of("size", size, "cursor", cursor));
+    }
+
+    public ResponseEntity<Object> getMatchingRequests(Long id, Long userId) {
+        return get("/" + id + "/matching-requests", userId);
+    }
+
     public ResponseEntity<Object> getAll(Integer from, Integer size, Long userId) {
         return get("?from=" + from + "&size=" + size, userId);
     }
 
+    public Mono<ResponseEntity<StreamingResponseBody>> export(Long userId) {
+        return streaming.download("/export", userId, MediaType.parseMediaType(Config.ndjsonMediaType));
+    }
+
     public ResponseEntity<Object> delete(Long id) {
         return delete("/" + id);
     }
@@ -41,6 +73,10 @@ public class ItemClient extends BaseClient {
         return post("", userId, dto);
     }
 
+    public Mono<ResponseEntity<Object>> importItems(InputStream body, MediaType contentType, Long userId) {
+        return streaming.upload("/import", userId, contentType, body);
+    }
+
     public ResponseEntity<Object> change(ItemInputDto dto, Long id, Long userId) {
         return patch("/" + id, userId, dto);
     }
@@ -49,6 +85,10 @@ public class ItemClient extends BaseClient {
         return get("/search?text=" + text + "&from=" + from + "&size=" + size, 0L);
     }
 
+    public ResponseEntity<Object> suggest(String prefix, Integer limit) {
+        return get("/suggest?prefix={prefix}&limit={limit}", null, Map.of("prefix", prefix, "limit", limit));
+    }
+
     public ResponseEntity<Object> createComment(CommentDto dto, Long itemId, Long userId) {
         return post("/" + itemId + "/comment", userId, dto);
     }
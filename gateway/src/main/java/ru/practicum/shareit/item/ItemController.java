@@ -2,16 +2,24 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.Config;
 import ru.practicum.shareit.group.Create;
 import ru.practicum.shareit.group.Update;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemInputDto;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -27,6 +35,33 @@ public class ItemController {
         return client.get(id, userId);
     }
 
+    @GetMapping("{id}/availability")
+    public ResponseEntity<Object> getAvailability(@PathVariable Long id,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                  @RequestHeader(Config.userHeaderName) Long userId) {
+        if (!from.isBefore(to)) {
+            return new ResponseEntity<>("Начало периода должно быть раньше конца", HttpStatus.BAD_REQUEST);
+        }
+        log.info("Get availability of item {}, from={}, to={}, userId={}", id, from, to, userId);
+        return client.getAvailability(id, from, to, userId);
+    }
+
+    @GetMapping("{id}/comments")
+    public ResponseEntity<Object> getComments(@PathVariable Long id, @RequestParam(defaultValue = "10") Integer size, @RequestParam(required = false) String cursor) {
+        if (size <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        log.info("Get comments of item {}, size={}, cursor={}", id, size, cursor);
+        return client.getComments(id, size, cursor);
+    }
+
+    @GetMapping("{id}/matching-requests")
+    public ResponseEntity<Object> getMatchingRequests(@PathVariable Long id, @RequestHeader(Config.userHeaderName) Long userId) {
+        log.info("Get requests matching item {}, userId={}", id, userId);
+        return client.getMatchingRequests(id, userId);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getAll(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestHeader(Config.userHeaderName) Long userId) {
         if (size <= 0 || from < 0) {
@@ -36,6 +71,12 @@ public class ItemController {
         return client.getAll(from, size, userId);
     }
 
+    @GetMapping("export")
+    public Mono<ResponseEntity<StreamingResponseBody>> export(@RequestHeader(Config.userHeaderName) Long userId) {
+        log.info("Export items, userId={}", userId);
+        return client.export(userId);
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<Object> delete(@PathVariable Long id) {
         log.info("Delete item {}", id);
@@ -48,6 +89,12 @@ public class ItemController {
         return client.create(dto, userId);
     }
 
+    @PostMapping(path = "import", consumes = {Config.ndjsonMediaType, Config.csvMediaType})
+    public Mono<ResponseEntity<Object>> importItems(HttpServletRequest request, @RequestHeader(Config.userHeaderName) Long userId) throws IOException {
+        log.info("Import items of type {}, userId={}", request.getContentType(), userId);
+        return client.importItems(request.getInputStream(), MediaType.parseMediaType(request.getContentType()), userId);
+    }
+
     @PatchMapping("{id}")
     public ResponseEntity<Object> change(@Validated(Update.class) @RequestBody ItemInputDto dto, @PathVariable Long id, @RequestHeader(Config.userHeaderName) Long userId) {
         log.info("Change item {} with id {}, userId={}", dto, id, userId);
@@ -63,6 +110,15 @@ public class ItemController {
         return client.search(text, from, size);
     }
 
+    @GetMapping("suggest")
+    public ResponseEntity<Object> suggest(@RequestParam(defaultValue = "") String prefix, @RequestParam(defaultValue = "10") Integer limit) {
+        if (limit <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        log.info("Suggest item names by prefix={}, limit={}", prefix, limit);
+        return client.suggest(prefix, limit);
+    }
+
     @PostMapping("{itemId}/comment")
     public ResponseEntity<Object> createComment(@Validated(Create.class) @RequestBody CommentDto dto, @PathVariable Long itemId, @RequestHeader(Config.userHeaderName) Long userId) {
         log.info("Create comment {}, itemId={}, userId={}", dto, itemId, userId);
@@ -4,38 +4,53 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.StreamingClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
+    private final StreamingClient streaming;
+
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder, WebClient.Builder webClientBuilder) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
+        streaming = new StreamingClient(webClientBuilder.baseUrl(serverUrl + API_PREFIX).build());
     }
 
     public ResponseEntity<Object> create(ItemRequestDto dto, Long userId) {
         return post("", userId, dto);
     }
 
-    public ResponseEntity<Object> getAllByUser(Long userId) {
-        return get("", userId);
+    public ResponseEntity<Object> getAllByUser(Integer from, Integer size, Long userId) {
+        if (size == null) {
+            return get("", userId);
+        }
+        return get("?from=" + from + "&size=" + size, userId);
     }
 
     public ResponseEntity<Object> getByParams(Integer from, Integer size, Long userId) {
         return get("/all?from=" + from + "&size=" + size, userId);
     }
 
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> streamMatches(Long userId) {
+        return streaming.events("/stream", userId);
+    }
+
     public ResponseEntity<Object> get(Long id, Long userId) {
         return get("/" + id, userId);
     }
@@ -3,10 +3,14 @@ package ru.practicum.shareit.request;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.Config;
 import ru.practicum.shareit.group.Create;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -26,9 +30,12 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllByUser(@RequestHeader(Config.userHeaderName) Long userId) {
-        log.info("Get items, userId={}", userId);
-        return client.getAllByUser(userId);
+    public ResponseEntity<Object> getAllByUser(@RequestParam(defaultValue = "0") Integer from, @RequestParam(required = false) Integer size, @RequestHeader(Config.userHeaderName) Long userId) {
+        if (from < 0 || size != null && size <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        log.info("Get items, from={}, size={}, userId={}", from, size, userId);
+        return client.getAllByUser(from, size, userId);
     }
 
     @GetMapping("all")
@@ -40,6 +47,12 @@ public class ItemRequestController {
         return client.getByParams(from, size, userId);
     }
 
+    @GetMapping(path = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Mono<ResponseEntity<Flux<ServerSentEvent<String>>>> streamMatches(@RequestHeader(Config.userHeaderName) Long userId) {
+        log.info("Stream matching items of user {}", userId);
+        return client.streamMatches(userId);
+    }
+
     @GetMapping("{id}")
     public ResponseEntity<Object> get(@PathVariable Long id, @RequestHeader(Config.userHeaderName) Long userId) {
         log.info("Get item {}, userId={}", id, userId);
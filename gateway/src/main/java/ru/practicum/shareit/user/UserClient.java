@@ -3,34 +3,54 @@ package ru.practicum.shareit.user;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.StreamingClient;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.HashMap;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
+    private final StreamingClient streaming;
+
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder, WebClient.Builder webClientBuilder) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
                         .requestFactory(HttpComponentsClientHttpRequestFactory::new)
                         .build()
         );
+        streaming = new StreamingClient(webClientBuilder.baseUrl(serverUrl + API_PREFIX).build());
     }
 
     public ResponseEntity<Object> get(@PathVariable Long id) {
         return get("/" + id);
     }
 
-    public ResponseEntity<Object> getAll() {
-        return get("");
+    public ResponseEntity<Object> getPage(Integer size, String cursor) {
+        var parameters = new HashMap<String, Object>();
+        parameters.put("size", size);
+        if (cursor == null) {
+            return get("?size={size}", null, parameters);
+        }
+        parameters.put("cursor", cursor);
+        return get("?size={size}&cursor={cursor}", null, parameters);
+    }
+
+    public Mono<ResponseEntity<StreamingResponseBody>> getAll(String cursor) {
+        return streaming.download(cursor != null ? "?cursor=" + cursor : "", null, MediaType.APPLICATION_JSON);
     }
 
     public ResponseEntity<Object> delete(Long id) {
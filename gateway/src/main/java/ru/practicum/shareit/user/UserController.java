@@ -3,10 +3,13 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.group.Create;
 import ru.practicum.shareit.group.Update;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -25,10 +28,19 @@ public class UserController {
         return client.get(id);
     }
 
+    @GetMapping(params = "size")
+    public ResponseEntity<Object> getPage(@RequestParam Integer size, @RequestParam(required = false) String cursor) {
+        if (size <= 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        log.info("Get users, size={}, cursor={}", size, cursor);
+        return client.getPage(size, cursor);
+    }
+
     @GetMapping
-    public ResponseEntity<Object> getAll() {
-        log.info("Get users");
-        return client.getAll();
+    public Mono<ResponseEntity<StreamingResponseBody>> getAll(@RequestParam(required = false) String cursor) {
+        log.info("Stream users, cursor={}", cursor);
+        return client.getAll(cursor);
     }
 
     @DeleteMapping("{id}")
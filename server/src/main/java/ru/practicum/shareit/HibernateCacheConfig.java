@@ -0,0 +1,51 @@
+package ru.practicum.shareit;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Second-level cache regions of the cached entities. Every region is an in-process Caffeine cache
+ * bounded by {@code shareit.cache.entity.max-size} entries, each expiring {@code shareit.cache.entity.ttl}
+ * after it was written. Each application context gets a cache manager of its own, so contexts
+ * running side by side, as in tests, neither share regions nor close each other's.
+ */
+@Configuration
+public class HibernateCacheConfig {
+    private static final List<Class<?>> CACHED_ENTITIES = List.of(User.class, Item.class, ItemRequest.class);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${shareit.cache.entity.max-size}") long maxSize,
+                                              @Value("${shareit.cache.entity.ttl}") Duration ttl) {
+        var provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        var uri = URI.create(provider.getDefaultURI() + "/" + UUID.randomUUID());
+        var manager = provider.getCacheManager(uri, HibernateCacheConfig.class.getClassLoader());
+        for (Class<?> entity : CACHED_ENTITIES) {
+            var configuration = new CaffeineConfiguration<Object, Object>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            manager.createCache(entity.getName(), configuration);
+        }
+        return manager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -1,13 +1,19 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingBatchEntryDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.Config;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.enums.State;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -21,23 +27,39 @@ public class BookingController {
         return service.create(object, userId);
     }
 
+    @PostMapping("batch")
+    public List<BookingBatchEntryDto> createAll(@RequestBody List<BookingInputDto> objects, @RequestHeader(Config.userHeaderName) Long userId) {
+        return service.createAll(objects, userId);
+    }
+
     @PatchMapping("{id}")
     public BookingDto approve(@PathVariable Long id, @RequestParam(defaultValue = "true") Boolean approved, @RequestHeader(Config.userHeaderName) Long userId) {
         return service.approve(id, userId, approved);
     }
 
+    @PatchMapping("batch")
+    public BookingStatusUpdateDto approveAll(@RequestBody List<Long> ids, @RequestParam(defaultValue = "true") Boolean approved, @RequestHeader(Config.userHeaderName) Long userId) {
+        return service.approveAll(ids, userId, approved);
+    }
+
+    @GetMapping("owner/stream")
+    public void streamOwnerEvents(@RequestHeader(Config.userHeaderName) Long userId,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        service.subscribeOwner(userId, request, response);
+    }
+
     @GetMapping("{id}")
     public BookingDto get(@PathVariable Long id, @RequestHeader(Config.userHeaderName) Long userId) {
         return service.get(id, userId);
     }
 
     @GetMapping
-    public List<BookingDto> getBookingsByBooker(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(defaultValue = "ALL") State state, @RequestHeader(Config.userHeaderName) Long userId) {
-        return service.getBookingsByBookerAndState(state, userId, from, size);
+    public ResponseEntity<List<BookingDto>> getBookingsByBooker(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "ALL") State state, @RequestHeader(Config.userHeaderName) Long userId) {
+        return service.getBookingsByBookerAndState(state, userId, from, size, cursor).toResponse();
     }
 
     @GetMapping("owner")
-    public List<BookingDto> getBookingsByOwner(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(defaultValue = "ALL") State state, @RequestHeader(Config.userHeaderName) Long userId) {
-        return service.getBookingsByOwnerAndState(state, userId, from, size);
+    public ResponseEntity<List<BookingDto>> getBookingsByOwner(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "ALL") State state, @RequestHeader(Config.userHeaderName) Long userId) {
+        return service.getBookingsByOwnerAndState(state, userId, from, size, cursor).toResponse();
     }
 }
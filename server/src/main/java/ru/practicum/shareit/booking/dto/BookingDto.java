@@ -17,4 +17,14 @@ public class BookingDto {
     private BookingStatus status;
     private LocalDateTime start;
     private LocalDateTime end;
+
+    public BookingDto(Long id, Long itemId, String itemName, String itemDescription, Boolean itemAvailable, Long itemRequestId,
+                      Long bookerId, String bookerName, String bookerEmail, BookingStatus status, LocalDateTime start, LocalDateTime end) {
+        this(id,
+                new ItemDto(itemId, itemName, itemDescription, itemAvailable, itemRequestId),
+                new UserDto(bookerId, bookerName, bookerEmail),
+                status,
+                start,
+                end);
+    }
 }
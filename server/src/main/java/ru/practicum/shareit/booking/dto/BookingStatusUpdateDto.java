@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BookingStatusUpdateDto {
+    private BookingStatus status;
+    private List<Long> changed;
+    private List<Long> skipped;
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class ItemBookingsInfo {
+    private BookingInfoDto current;
+    private BookingInfoDto next;
+    private BookingInfoDto last;
+}
@@ -6,6 +6,7 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRecord;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -17,7 +18,7 @@ public class BookingMapper {
     public final ItemMapper itemMapper;
     public final UserMapper userMapper;
 
-    public BookingDto toDto(Booking booking) {
+    public BookingDto toDto(BookingRecord booking) {
         return new BookingDto(
                 booking.getId(),
                 itemMapper.toDto(booking.getItem()),
@@ -27,7 +28,7 @@ public class BookingMapper {
                 booking.getEnd());
     }
 
-    public BookingInfoDto toInfo(Booking booking) {
+    public BookingInfoDto toInfo(BookingRecord booking) {
         return new BookingInfoDto(
                 booking.getId(),
                 booking.getBooker().getId());
@@ -40,6 +41,7 @@ public class BookingMapper {
                 booking.getEnd(),
                 item,
                 user,
-                null);
+                null,
+                0L);
     }
 }
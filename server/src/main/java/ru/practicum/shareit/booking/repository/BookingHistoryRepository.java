@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.model.BookingHistory;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingHistoryRepository extends JpaRepository<BookingHistory, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<BookingHistory> findById(Long id);
+
+    @Query(value = "select b from BookingHistory b where b.item.id = :itemId and b.booker.id = :userId order by b.end")
+    List<BookingHistory> findAllByItemAndUser(Long itemId, Long userId);
+}
@@ -0,0 +1,216 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.ItemBookingsInfo;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class BookingJdbcRepository {
+    private static final String INSERT = "INSERT INTO booking (start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_WAITING_BY_OWNER = "SELECT b.id, b.item_id FROM booking b "
+            + "WHERE b.id IN (:ids) AND b.status = 'WAITING' "
+            + "AND b.item_id IN (SELECT i.id FROM item i WHERE i.owner_id = :ownerId) FOR UPDATE";
+    private static final String SELECT_WAITING = "SELECT id, item_id FROM booking WHERE id IN (:ids) AND status = 'WAITING' FOR UPDATE";
+    private static final String SELECT_WAITING_AFTER = "SELECT id, start_date FROM booking WHERE status = 'WAITING' AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_STATUS = "UPDATE booking SET status = :status, version = version + 1 WHERE id IN (:ids) AND status = 'WAITING'";
+
+    private static final String SELECT_ENDED_BEFORE = "SELECT id, end_date FROM booking WHERE end_date < ? ORDER BY end_date LIMIT ?";
+    private static final String COPY_TO_ARCHIVE = "INSERT INTO booking_archive (id, start_date, end_date, item_id, booker_id, review, status, version) "
+            + "SELECT id, start_date, end_date, item_id, booker_id, review, status, version FROM booking WHERE id IN (:ids)";
+    private static final String DELETE_BY_IDS = "DELETE FROM booking WHERE id IN (:ids)";
+    private static final String SELECT_ITEM_BOOKINGS = "SELECT kind, item_id, id, booker_id FROM ("
+            + "SELECT 'CURRENT' AS kind, item_id, id, booker_id, "
+            + "ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY end_date, id) AS position FROM booking "
+            + "WHERE item_id IN (:itemIds) AND start_date <= :now AND end_date >= :now %s"
+            + "UNION ALL "
+            + "SELECT 'NEXT', item_id, id, booker_id, "
+            + "ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY start_date, id) FROM booking "
+            + "WHERE item_id IN (:itemIds) AND start_date > :now AND status = 'APPROVED' "
+            + "UNION ALL "
+            + "SELECT 'LAST', item_id, id, booker_id, "
+            + "ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY start_date DESC, id DESC) FROM booking_history "
+            + "WHERE item_id IN (:itemIds) AND start_date <= :now"
+            + ") t WHERE position = 1";
+    private static final String SELECT_NEXT_CHANGES = "SELECT item_id, MIN(change_date) AS change_date FROM ("
+            + "SELECT item_id, MIN(start_date) AS change_date FROM booking "
+            + "WHERE item_id IN (:itemIds) AND start_date > :now GROUP BY item_id "
+            + "UNION ALL "
+            + "SELECT item_id, MIN(end_date) FROM booking "
+            + "WHERE item_id IN (:itemIds) AND start_date <= :now AND end_date >= :now GROUP BY item_id"
+            + ") t GROUP BY item_id";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (var statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Booking booking : bookings) {
+                    statement.setTimestamp(1, Timestamp.valueOf(booking.getStart()));
+                    statement.setTimestamp(2, Timestamp.valueOf(booking.getEnd()));
+                    statement.setLong(3, booking.getItem().getId());
+                    statement.setLong(4, booking.getBooker().getId());
+                    statement.setString(5, booking.getStatus().name());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (var keys = statement.getGeneratedKeys()) {
+                    for (Booking booking : bookings) {
+                        keys.next();
+                        booking.setId(keys.getLong("id"));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    public Map<Long, Long> lockWaitingByOwner(Long ownerId, Collection<Long> ids) {
+        var parameters = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("ownerId", ownerId);
+        var result = new LinkedHashMap<Long, Long>();
+        namedJdbcTemplate.query(SELECT_WAITING_BY_OWNER, parameters, rs -> {
+            result.put(rs.getLong("id"), rs.getLong("item_id"));
+        });
+        return result;
+    }
+
+    public Map<Long, Long> lockWaiting(Collection<Long> ids) {
+        var result = new LinkedHashMap<Long, Long>();
+        namedJdbcTemplate.query(SELECT_WAITING, new MapSqlParameterSource("ids", ids), rs -> {
+            result.put(rs.getLong("id"), rs.getLong("item_id"));
+        });
+        return result;
+    }
+
+    public Map<Long, LocalDateTime> findWaitingAfter(Long afterId, int limit) {
+        var result = new LinkedHashMap<Long, LocalDateTime>();
+        jdbcTemplate.query(SELECT_WAITING_AFTER, rs -> {
+            result.put(rs.getLong("id"), rs.getTimestamp("start_date").toLocalDateTime());
+        }, afterId, limit);
+        return result;
+    }
+
+    public int updateWaitingStatus(Collection<Long> ids, BookingStatus status) {
+        var parameters = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("status", status.name());
+        return namedJdbcTemplate.update(UPDATE_STATUS, parameters);
+    }
+
+    public Map<Long, ItemBookingsInfo> findItemBookings(Collection<Long> itemIds, LocalDateTime now) {
+        return findItemBookings(String.format(SELECT_ITEM_BOOKINGS, ""), itemIds, now);
+    }
+
+    /**
+     * Same as {@link #findItemBookings} but only an approved booking counts as current,
+     * as on the single item card.
+     */
+    public Map<Long, ItemBookingsInfo> findItemCardBookings(Collection<Long> itemIds, LocalDateTime now) {
+        return findItemBookings(String.format(SELECT_ITEM_BOOKINGS, "AND status = 'APPROVED' "), itemIds, now);
+    }
+
+    private Map<Long, ItemBookingsInfo> findItemBookings(String sql, Collection<Long> itemIds, LocalDateTime now) {
+        var result = new HashMap<Long, ItemBookingsInfo>();
+        if (itemIds.isEmpty()) {
+            return result;
+        }
+        var parameters = new MapSqlParameterSource()
+                .addValue("itemIds", itemIds)
+                .addValue("now", Timestamp.valueOf(now));
+        namedJdbcTemplate.query(sql, parameters, rs -> {
+            var info = result.computeIfAbsent(rs.getLong("item_id"), id -> new ItemBookingsInfo());
+            var booking = new BookingInfoDto(rs.getLong("id"), rs.getLong("booker_id"));
+            switch (rs.getString("kind")) {
+                case "CURRENT":
+                    info.setCurrent(booking);
+                    break;
+                case "NEXT":
+                    info.setNext(booking);
+                    break;
+                default:
+                    info.setLast(booking);
+                    break;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns, per item, the nearest moment when a booking starts or the current one ends,
+     * i.e. when the result of {@link #findItemBookings} may change without any write.
+     */
+    public Map<Long, LocalDateTime> findNextChanges(Collection<Long> itemIds, LocalDateTime now) {
+        var result = new HashMap<Long, LocalDateTime>();
+        if (itemIds.isEmpty()) {
+            return result;
+        }
+        var parameters = new MapSqlParameterSource()
+                .addValue("itemIds", itemIds)
+                .addValue("now", Timestamp.valueOf(now));
+        namedJdbcTemplate.query(SELECT_NEXT_CHANGES, parameters, rs -> {
+            result.put(rs.getLong("item_id"), rs.getTimestamp("change_date").toLocalDateTime());
+        });
+        return result;
+    }
+
+    public Map<Long, LocalDateTime> findEndedBefore(LocalDateTime date, int limit) {
+        var result = new LinkedHashMap<Long, LocalDateTime>();
+        jdbcTemplate.query(SELECT_ENDED_BEFORE, rs -> {
+            result.put(rs.getLong("id"), rs.getTimestamp("end_date").toLocalDateTime());
+        }, Timestamp.valueOf(date), limit);
+        return result;
+    }
+
+    public void moveToArchive(Collection<Long> ids) {
+        var parameters = new MapSqlParameterSource("ids", ids);
+        namedJdbcTemplate.update(COPY_TO_ARCHIVE, parameters);
+        namedJdbcTemplate.update(DELETE_BY_IDS, parameters);
+    }
+
+    public boolean isArchivePartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+
+    /**
+     * Tells whether the database itself rejects overlapping active bookings of an item,
+     * which only the PostgreSQL schema does.
+     */
+    public boolean hasOverlapConstraint() {
+        return isArchivePartitioned() && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_booking_item_period')", Boolean.class));
+    }
+
+    public void createArchivePartition(YearMonth month) {
+        var from = month.atDay(1);
+        var to = month.plusMonths(1).atDay(1);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS booking_archive_p" + month.format(PARTITION_SUFFIX)
+                + " PARTITION OF booking_archive FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+}
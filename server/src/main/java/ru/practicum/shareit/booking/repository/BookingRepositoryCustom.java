@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.pagination.Cursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+    List<BookingDto> findAllByBookerAndState(Long bookerId, State state, LocalDateTime now, Cursor after, int offset, int limit);
+
+    List<BookingDto> findAllByOwnerAndState(Long ownerId, State state, LocalDateTime now, Cursor after, int offset, int limit);
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.pagination.Cursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    private static final String SELECT_DTO = "SELECT new ru.practicum.shareit.booking.dto.BookingDto("
+            + "b.id, i.id, i.name, i.description, i.available, i.request.id, u.id, u.name, u.email, b.status, b.start, b.end) FROM ";
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDto> findAllByBookerAndState(Long bookerId, State state, LocalDateTime now, Cursor after, int offset, int limit) {
+        return findAllByState("b.booker.id", bookerId, state, now, after, offset, limit);
+    }
+
+    @Override
+    public List<BookingDto> findAllByOwnerAndState(Long ownerId, State state, LocalDateTime now, Cursor after, int offset, int limit) {
+        return findAllByState("i.owner.id", ownerId, state, now, after, offset, limit);
+    }
+
+    private List<BookingDto> findAllByState(String userPath, Long userId, State state, LocalDateTime now, Cursor after, int offset, int limit) {
+        var sortPath = state == State.ALL ? "b.end" : "b.start";
+        var hot = state == State.WAITING || state == State.CURRENT || state == State.FUTURE;
+        var entity = hot ? "Booking" : "BookingHistory";
+        var jpql = new StringBuilder(SELECT_DTO).append(entity).append(" b JOIN b.item i JOIN b.booker u WHERE ").append(userPath).append(" = :userId");
+        switch (state) {
+            case CURRENT:
+                jpql.append(" AND b.start < :now AND b.end > :now");
+                break;
+            case PAST:
+                jpql.append(" AND b.end <= :now");
+                break;
+            case FUTURE:
+                jpql.append(" AND b.start >= :now");
+                break;
+            case WAITING:
+            case REJECTED:
+                jpql.append(" AND b.status = :status");
+                break;
+            default:
+                break;
+        }
+        if (after != null) {
+            jpql.append(" AND (").append(sortPath).append(" < :afterDate OR (")
+                    .append(sortPath).append(" = :afterDate AND b.id < :afterId))");
+        }
+        jpql.append(" ORDER BY ").append(sortPath).append(" DESC, b.id DESC");
+
+        var query = entityManager.createQuery(jpql.toString(), BookingDto.class)
+                .setParameter("userId", userId)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        switch (state) {
+            case CURRENT:
+            case PAST:
+            case FUTURE:
+                query.setParameter("now", now);
+                break;
+            case WAITING:
+            case REJECTED:
+                query.setParameter("status", BookingStatus.valueOf(state.name()));
+                break;
+            default:
+                break;
+        }
+        if (after != null) {
+            query.setParameter("afterDate", after.getDate()).setParameter("afterId", after.getId());
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingJdbcRepository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Moves bookings that ended before the configured horizon from {@code booking} to
+ * {@code booking_archive}, keeping the table used by current and future bookings small.
+ * On PostgreSQL the archive is partitioned by month of {@code end_date}; missing partitions
+ * are created before rows are moved into them.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+    private static final int BATCH_SIZE = 1000;
+
+    private final BookingJdbcRepository jdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int horizonDays;
+
+    public BookingArchiver(BookingJdbcRepository jdbcRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${shareit.booking.archive.horizon-days}") int horizonDays) {
+        this.jdbcRepository = jdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.horizonDays = horizonDays;
+    }
+
+    @Scheduled(cron = "${shareit.booking.archive.cron}")
+    public void archive() {
+        var before = LocalDateTime.now().minusDays(horizonDays);
+        var partitioned = jdbcRepository.isArchivePartitioned();
+        var moved = 0;
+        while (true) {
+            var bookings = jdbcRepository.findEndedBefore(before, BATCH_SIZE);
+            if (bookings.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                if (partitioned) {
+                    bookings.values().stream()
+                            .map(YearMonth::from)
+                            .distinct()
+                            .forEach(jdbcRepository::createArchivePartition);
+                }
+                jdbcRepository.moveToArchive(bookings.keySet());
+            });
+            moved += bookings.size();
+        }
+        log.info("Archived {} bookings that ended before {}", moved, before);
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingJdbcRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Moves WAITING bookings to {@link BookingStatus#EXPIRED} once their start has passed or the
+ * owner has not answered within the configured timeout, whichever comes first.
+ * Deadlines are kept in a {@link TimingWheel} filled from the database on startup and updated
+ * by {@link BookingService}; bookings due within the same tick are expired together.
+ */
+@Slf4j
+@Component
+public class BookingExpirer {
+    private static final long TICK_MILLIS = 1000;
+    private static final long RETRY_MILLIS = 60_000;
+    private static final int BATCH_SIZE = 1000;
+
+    private final BookingJdbcRepository jdbcRepository;
+    private final BookingIntervalIndex intervalIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeout;
+    private final TimingWheel wheel = new TimingWheel(TICK_MILLIS, System.currentTimeMillis());
+
+    public BookingExpirer(BookingJdbcRepository jdbcRepository,
+                          BookingIntervalIndex intervalIndex,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${shareit.booking.expiration.timeout}") Duration timeout) {
+        this.jdbcRepository = jdbcRepository;
+        this.intervalIndex = intervalIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.timeout = timeout.toMillis();
+    }
+
+    public void register(Booking booking) {
+        register(booking.getId(), booking.getStart());
+    }
+
+    public void cancel(Long bookingId) {
+        synchronized (wheel) {
+            wheel.cancel(bookingId);
+        }
+    }
+
+    public void cancelAll(Collection<Long> bookingIds) {
+        synchronized (wheel) {
+            bookingIds.forEach(wheel::cancel);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        var afterId = 0L;
+        while (true) {
+            var bookings = jdbcRepository.findWaitingAfter(afterId, BATCH_SIZE);
+            if (bookings.isEmpty()) {
+                break;
+            }
+            for (var booking : bookings.entrySet()) {
+                register(booking.getKey(), booking.getValue());
+                afterId = booking.getKey();
+            }
+        }
+        log.info("Scheduled expiration of {} waiting bookings", wheel.size());
+    }
+
+    @Scheduled(fixedDelay = TICK_MILLIS)
+    public void expire() {
+        var due = new ArrayList<Long>();
+        synchronized (wheel) {
+            wheel.advance(System.currentTimeMillis(), due::add);
+        }
+        for (int from = 0; from < due.size(); from += BATCH_SIZE) {
+            expire(due.subList(from, Math.min(from + BATCH_SIZE, due.size())));
+        }
+    }
+
+    private void expire(List<Long> ids) {
+        try {
+            var expired = transactionTemplate.execute(status -> {
+                var waiting = jdbcRepository.lockWaiting(ids);
+                if (!waiting.isEmpty()) {
+                    jdbcRepository.updateWaitingStatus(waiting.keySet(), BookingStatus.EXPIRED);
+                }
+                return waiting;
+            });
+            expired.forEach((id, itemId) -> intervalIndex.remove(itemId, id));
+            log.info("Expired {} waiting bookings", expired.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to expire {} bookings, retrying later", ids.size(), e);
+            var retryAt = System.currentTimeMillis() + RETRY_MILLIS;
+            synchronized (wheel) {
+                ids.forEach(id -> wheel.schedule(id, retryAt));
+            }
+        }
+    }
+
+    private void register(Long bookingId, LocalDateTime start) {
+        var deadline = Math.min(start.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                System.currentTimeMillis() + timeout);
+        synchronized (wheel) {
+            wheel.schedule(bookingId, deadline);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingPeriod;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingJdbcRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of the time slots held by bookings, grouped by item.
+ * An item is loaded from the database the first time it is touched and is kept up to date
+ * by {@link BookingService} afterwards. The index only sees the changes made through this
+ * instance, so for overlap checks it is advisory: an overlap it reports is confirmed in the
+ * database before a booking is rejected, and when the database has no exclusion constraint
+ * (H2) the absence of one is confirmed too. Whenever the database disagrees, the item is
+ * reloaded. On PostgreSQL {@code ex_booking_item_period} rejects what the index missed.
+ * Every access to an item, including its load, runs under the item's stripe lock
+ * ({@link #lockFor(Long)}), which {@link BookingService} also holds across check-then-insert
+ * sequences, so a load can never miss a committed booking that is about to be added.
+ * Items hashing to different stripes never wait for each other.
+ * At most {@code shareit.booking.index.max-items} items are kept, least recently used first out,
+ * and intervals that have already ended are dropped.
+ */
+@Component
+public class BookingIntervalIndex {
+    public static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final int LOCK_STRIPES = 256;
+
+    private final BookingRepository repository;
+    private final BookingJdbcRepository jdbcRepository;
+    private final Map<Long, ItemIntervals> items;
+    private final Lock[] locks = createLocks();
+    private boolean overlapConstraint;
+
+    public BookingIntervalIndex(BookingRepository repository,
+                                BookingJdbcRepository jdbcRepository,
+                                @Value("${shareit.booking.index.max-items}") int maxItems) {
+        this.repository = repository;
+        this.jdbcRepository = jdbcRepository;
+        this.items = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemIntervals> eldest) {
+                return size() > maxItems;
+            }
+        };
+    }
+
+    /**
+     * Looks the constraint up once, before any stripe lock is taken: a lock holder must not need a
+     * second pooled connection while the threads waiting for its stripe may hold the rest.
+     */
+    @PostConstruct
+    void detectOverlapConstraint() {
+        overlapConstraint = jdbcRepository.hasOverlapConstraint();
+    }
+
+    public Lock lockFor(Long itemId) {
+        return locks[stripe(itemId)];
+    }
+
+    public List<Lock> locksFor(Collection<Long> itemIds) {
+        return itemIds.stream()
+                .map(BookingIntervalIndex::stripe)
+                .distinct()
+                .sorted()
+                .map(stripe -> locks[stripe])
+                .collect(Collectors.toList());
+    }
+
+    public boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        var lock = lockFor(itemId);
+        lock.lock();
+        try {
+            var cached = intervals(itemId).overlaps(toMicros(start), toMicros(end));
+            if (!cached && overlapConstraint) {
+                return false;
+            }
+            var stored = repository.existsByItem_IdAndStatusInAndStartBeforeAndEndAfter(itemId, ACTIVE_STATUSES, end, start);
+            if (stored != cached) {
+                reload(itemId);
+            }
+            return stored;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<TimeSlotDto> freeSlots(Long itemId, LocalDateTime from, LocalDateTime to) {
+        long[] slots;
+        var lock = lockFor(itemId);
+        lock.lock();
+        try {
+            slots = intervals(itemId).free(toMicros(from), toMicros(to));
+        } finally {
+            lock.unlock();
+        }
+        var result = new ArrayList<TimeSlotDto>(slots.length / 2);
+        for (int i = 0; i < slots.length; i += 2) {
+            result.add(new TimeSlotDto(fromMicros(slots[i]), fromMicros(slots[i + 1])));
+        }
+        return result;
+    }
+
+    public void add(Booking booking) {
+        var itemId = booking.getItem().getId();
+        var lock = lockFor(itemId);
+        lock.lock();
+        try {
+            intervals(itemId).add(booking.getId(), toMicros(booking.getStart()), toMicros(booking.getEnd()), now());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void remove(Long itemId, Long bookingId) {
+        var lock = lockFor(itemId);
+        lock.lock();
+        try {
+            intervals(itemId).remove(bookingId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the intervals of an item, loading them if needed. The caller holds the item's stripe lock,
+     * so only one thread loads an item and the database query runs outside the map's monitor.
+     */
+    private ItemIntervals intervals(Long itemId) {
+        ItemIntervals intervals;
+        synchronized (items) {
+            intervals = items.get(itemId);
+        }
+        if (intervals == null) {
+            intervals = load(itemId);
+            synchronized (items) {
+                items.put(itemId, intervals);
+            }
+        }
+        return intervals;
+    }
+
+    private void reload(Long itemId) {
+        var intervals = load(itemId);
+        synchronized (items) {
+            items.put(itemId, intervals);
+        }
+    }
+
+
+    private ItemIntervals load(Long itemId) {
+        var intervals = new ItemIntervals();
+        var now = LocalDateTime.now();
+        for (BookingPeriod period : repository.findAllByItem_IdAndStatusInAndEndAfter(itemId, ACTIVE_STATUSES, now)) {
+            intervals.add(period.getId(), toMicros(period.getStart()), toMicros(period.getEnd()), toMicros(now));
+        }
+        return intervals;
+    }
+
+    private static long now() {
+        return toMicros(LocalDateTime.now());
+    }
+
+    private static int stripe(Long itemId) {
+        return Math.floorMod(itemId.hashCode(), LOCK_STRIPES);
+    }
+
+    private static Lock[] createLocks() {
+        var locks = new Lock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private static long toMicros(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + date.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Intervals of a single item sorted by start, guarded by the item's stripe lock.
+     * Intervals that ended before now are dropped whenever the arrays have to grow.
+     * {@code maxEnds[i]} holds the latest end among the first {@code i + 1} intervals, which answers
+     * an overlap query with one binary search even if the stored intervals overlap each other.
+     */
+    private static class ItemIntervals {
+        private long[] ids = new long[4];
+        private long[] starts = new long[4];
+        private long[] ends = new long[4];
+        private long[] maxEnds = new long[4];
+        private int size;
+
+        boolean overlaps(long start, long end) {
+            var last = lowerBound(end) - 1;
+            return last >= 0 && maxEnds[last] > start;
+        }
+
+        /**
+         * Returns the gaps between intervals within {@code [from, to)} as flattened start/end pairs.
+         * Intervals ending before {@code from} are skipped with a binary search on {@code maxEnds}.
+         */
+        long[] free(long from, long to) {
+            var result = new long[8];
+            var count = 0;
+            var cursor = from;
+            for (int i = firstEndingAfter(from); i < size && starts[i] < to; i++) {
+                if (starts[i] > cursor) {
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, count * 2);
+                    }
+                    result[count++] = cursor;
+                    result[count++] = starts[i];
+                }
+                cursor = Math.max(cursor, ends[i]);
+            }
+            if (cursor < to) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count + 2);
+                }
+                result[count++] = cursor;
+                result[count++] = to;
+            }
+            return Arrays.copyOf(result, count);
+        }
+
+        void add(long id, long start, long end, long now) {
+            var position = lowerBound(start);
+            for (int i = position; i < size && starts[i] == start; i++) {
+                if (ids[i] == id) {
+                    return;
+                }
+            }
+            if (size == ids.length && prune(now) > 0) {
+                position = lowerBound(start);
+            }
+            if (size == ids.length) {
+                var capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                maxEnds = Arrays.copyOf(maxEnds, capacity);
+            }
+            var tail = size - position;
+            System.arraycopy(ids, position, ids, position + 1, tail);
+            System.arraycopy(starts, position, starts, position + 1, tail);
+            System.arraycopy(ends, position, ends, position + 1, tail);
+            ids[position] = id;
+            starts[position] = start;
+            ends[position] = end;
+            size++;
+            updateMaxEnds(position);
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    var tail = size - i - 1;
+                    System.arraycopy(ids, i + 1, ids, i, tail);
+                    System.arraycopy(starts, i + 1, starts, i, tail);
+                    System.arraycopy(ends, i + 1, ends, i, tail);
+                    size--;
+                    updateMaxEnds(i);
+                    return;
+                }
+            }
+        }
+
+        private int prune(long now) {
+            var kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (ends[i] > now) {
+                    ids[kept] = ids[i];
+                    starts[kept] = starts[i];
+                    ends[kept] = ends[i];
+                    kept++;
+                }
+            }
+            var pruned = size - kept;
+            size = kept;
+            updateMaxEnds(0);
+            return pruned;
+        }
+
+        private int lowerBound(long value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                var middle = (low + high) >>> 1;
+                if (starts[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private int firstEndingAfter(long value) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                var middle = (low + high) >>> 1;
+                if (maxEnds[middle] <= value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void updateMaxEnds(int from) {
+            var max = from > 0 ? maxEnds[from - 1] : Long.MIN_VALUE;
+            for (int i = from; i < size; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+    }
+}
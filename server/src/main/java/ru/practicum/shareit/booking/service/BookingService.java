@@ -1,10 +1,18 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingBatchEntryDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.model.BookingRecord;
+import ru.practicum.shareit.booking.repository.BookingHistoryRepository;
+import ru.practicum.shareit.booking.repository.BookingJdbcRepository;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.enums.BookingEventType;
+import ru.practicum.shareit.event.EventBus;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -14,19 +22,44 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemViewProjector;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService {
+    private static final int BATCH_SIZE = 1000;
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final String OWNER_TOPIC = "bookings";
+
     private final BookingRepository repository;
+    private final BookingHistoryRepository historyRepository;
     private final UserService userService;
     private final ItemService itemService;
     private final BookingMapper mapper;
+    private final BookingIntervalIndex intervalIndex;
+    private final BookingJdbcRepository jdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EventBus eventBus;
+    private final BookingExpirer expirer;
+    private final ItemViewProjector itemViewProjector;
 
     public BookingDto create(BookingInputDto dto, Long userId) {
         var user = userService.get(userId);
@@ -39,9 +72,95 @@ public class BookingService {
         }
 
         var booking = mapper.toBooking(user, item, dto);
-        validateBooking(booking);
-        booking.setStatus(BookingStatus.WAITING);
-        return mapper.toDto(repository.save(booking));
+        var lock = intervalIndex.lockFor(itemId);
+        lock.lock();
+        try {
+            validateBooking(booking);
+            booking.setStatus(BookingStatus.WAITING);
+            booking = repository.save(booking);
+            intervalIndex.add(booking);
+            expirer.register(booking);
+        } catch (DataIntegrityViolationException e) {
+            throw overlapOrRethrow(e);
+        } finally {
+            lock.unlock();
+        }
+        itemViewProjector.bookingAdded(itemId, booking.getStart());
+        var result = mapper.toDto(booking);
+        publish(BookingEventType.CREATED, item.getOwner().getId(), result);
+        return result;
+    }
+
+    public List<BookingBatchEntryDto> createAll(List<BookingInputDto> dtos, Long userId) {
+        if (dtos == null || dtos.isEmpty() || dtos.stream().anyMatch(Objects::isNull)) {
+            throw new ValidationException("Переданы неверные параметры");
+        }
+        var user = userService.get(userId);
+        var items = itemService.getAll(dtos.stream()
+                .map(BookingInputDto::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        var result = new ArrayList<BookingBatchEntryDto>(dtos.size());
+        var accepted = new ArrayList<Booking>();
+        var acceptedEntries = new ArrayList<BookingBatchEntryDto>();
+        var locks = intervalIndex.locksFor(items.keySet());
+        locks.forEach(Lock::lock);
+        try {
+            var acceptedByItem = new HashMap<Long, List<Booking>>();
+            for (int i = 0; i < dtos.size(); i++) {
+                var dto = dtos.get(i);
+                try {
+                    validateInput(dto);
+                    var item = items.get(dto.getItemId());
+                    if (item == null) {
+                        throw new NotFoundException("Предмет с таким id не существует");
+                    } else if (item.getOwner().getId().equals(userId)) {
+                        throw new NotFoundException("Владелец не может забронировать вещь");
+                    }
+
+                    var booking = mapper.toBooking(user, item, dto);
+                    validateBooking(booking);
+                    var sameItem = acceptedByItem.computeIfAbsent(item.getId(), id -> new ArrayList<>());
+                    for (Booking other : sameItem) {
+                        if (other.getStart().isBefore(booking.getEnd()) && other.getEnd().isAfter(booking.getStart())) {
+                            throw new NotFoundException("Бронирование на это время уже есть");
+                        }
+                    }
+                    booking.setStatus(BookingStatus.WAITING);
+                    sameItem.add(booking);
+                    accepted.add(booking);
+                    var entry = new BookingBatchEntryDto(i, null, null);
+                    acceptedEntries.add(entry);
+                    result.add(entry);
+                } catch (NotFoundException | ValidationException e) {
+                    result.add(new BookingBatchEntryDto(i, null, e.getMessage()));
+                }
+            }
+
+            insertAll(accepted, acceptedEntries);
+            accepted.forEach(intervalIndex::add);
+            accepted.forEach(expirer::register);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+
+        accepted.stream()
+                .collect(Collectors.toMap(booking -> booking.getItem().getId(), Booking::getStart,
+                        (first, second) -> first.isBefore(second) ? first : second))
+                .forEach(itemViewProjector::bookingAdded);
+
+        var inserted = accepted.iterator();
+        for (BookingBatchEntryDto entry : result) {
+            if (entry.getError() == null) {
+                var booking = inserted.next();
+                entry.setBooking(mapper.toDto(booking));
+                publish(BookingEventType.CREATED, booking.getItem().getOwner().getId(), entry.getBooking());
+            }
+        }
+        return result;
     }
 
     public BookingDto approve(Long bookingId, Long userId, Boolean approved) {
@@ -60,13 +179,59 @@ public class BookingService {
             booking.setStatus(BookingStatus.APPROVED);
         }
 
-        return mapper.toDto(repository.save(booking));
+        try {
+            booking = repository.save(booking);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new ValidationException("Статус уже был изменен");
+        }
+        expirer.cancel(booking.getId());
+        if (!approved) {
+            intervalIndex.remove(booking.getItem().getId(), booking.getId());
+        }
+        itemViewProjector.refresh(booking.getItem().getId());
+        var result = mapper.toDto(booking);
+        publish(approved ? BookingEventType.APPROVED : BookingEventType.REJECTED, userId, result);
+        return result;
+    }
+
+    public BookingStatusUpdateDto approveAll(List<Long> bookingIds, Long userId, Boolean approved) {
+        var status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        var ids = new ArrayList<>(new LinkedHashSet<>(bookingIds));
+        var changed = new LinkedHashMap<Long, Long>();
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            var chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            changed.putAll(transactionTemplate.execute(transaction -> {
+                var waiting = jdbcRepository.lockWaitingByOwner(userId, chunk);
+                if (!waiting.isEmpty()) {
+                    jdbcRepository.updateWaitingStatus(waiting.keySet(), status);
+                }
+                return waiting;
+            }));
+        }
+
+        expirer.cancelAll(changed.keySet());
+        if (!approved) {
+            changed.forEach((id, itemId) -> intervalIndex.remove(itemId, id));
+        }
+        itemViewProjector.refresh(new HashSet<>(changed.values()));
+        if (!changed.isEmpty() && eventBus.hasSubscribers(OWNER_TOPIC, userId)) {
+            var type = approved ? BookingEventType.APPROVED : BookingEventType.REJECTED;
+            repository.findAllById(changed.keySet())
+                    .forEach(booking -> publish(type, userId, mapper.toDto(booking)));
+        }
+        var skipped = ids.stream().filter(id -> !changed.containsKey(id)).collect(Collectors.toList());
+        return new BookingStatusUpdateDto(status, new ArrayList<>(changed.keySet()), skipped);
+    }
+
+    public void subscribeOwner(Long userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        userService.checkExists(userId);
+        eventBus.subscribe(OWNER_TOPIC, userId, request, response);
     }
 
     public BookingDto get(Long bookingId, Long userId) {
-        var booking = findById(bookingId);
+        var booking = findRecordById(bookingId);
 
-        userService.get(userId);
+        userService.checkExists(userId);
         var bookerId = booking.getBooker().getId();
         var ownerId = booking.getItem().getOwner().getId();
 
@@ -77,63 +242,50 @@ public class BookingService {
         return mapper.toDto(booking);
     }
 
-    public List<BookingDto> getBookingsByOwnerAndState(State state, Long userId, Integer from, Integer size) {
-        userService.get(userId);
-        var now = LocalDateTime.now();
-        var pageRequest = PageRequest.of(from / size, size);
-        Page<Booking> result;
-        switch (state) {
-            case CURRENT:
-                result = repository.findAllByItem_Owner_IdAndStartBeforeAndEndAfter(userId, now, now, pageRequest);
-                break;
-            case PAST:
-                result = repository.findAllByItem_Owner_IdAndEndLessThanEqualOrderByStartDesc(userId, now, pageRequest);
-                break;
-            case FUTURE:
-                result = repository.findAllByItem_Owner_IdAndStartGreaterThanEqualOrderByStartDesc(userId, now, pageRequest);
-                break;
-            case WAITING:
-                result = repository.findAllByItem_Owner_IdAndStatusIs(userId, BookingStatus.WAITING, pageRequest);
-                break;
-            case REJECTED:
-                result = repository.findAllByItem_Owner_IdAndStatusIs(userId, BookingStatus.REJECTED, pageRequest);
-                break;
-            default:
-                result = repository.findAllByItem_Owner_IdOrderByEndDesc(userId, pageRequest);
-                break;
-        }
-        return result.stream().map(mapper::toDto).collect(Collectors.toList());
-    }
-
-    public List<BookingDto> getBookingsByBookerAndState(State state, Long userId, Integer from, Integer size) {
+    public CursorPage<BookingDto> getBookingsByOwnerAndState(State state, Long userId, Integer from, Integer size, String cursor) {
+        validatePage(from, size);
+        userService.checkExists(userId);
+        var after = cursor != null ? Cursor.decode(cursor) : null;
+        var offset = after != null ? 0 : from / size * size;
+        var bookings = repository.findAllByOwnerAndState(userId, state, LocalDateTime.now(), after, offset, size + 1);
+        return toPage(bookings, state, size);
+    }
+
+    public CursorPage<BookingDto> getBookingsByBookerAndState(State state, Long userId, Integer from, Integer size, String cursor) {
+        validatePage(from, size);
+        userService.checkExists(userId);
+        var after = cursor != null ? Cursor.decode(cursor) : null;
+        var offset = after != null ? 0 : from / size * size;
+        var bookings = repository.findAllByBookerAndState(userId, state, LocalDateTime.now(), after, offset, size + 1);
+        return toPage(bookings, state, size);
+    }
+
+    private void publish(BookingEventType type, Long ownerId, BookingDto booking) {
+        eventBus.publish(OWNER_TOPIC, ownerId, type.name(), booking);
+    }
+
+    private void validatePage(Integer from, Integer size) {
         if (size <= 0 || from < 0) {
             throw new ValidationException("Переданы неверные параметры");
         }
-        userService.get(userId);
-        var now = LocalDateTime.now();
-        var pageRequest = PageRequest.of(from / size, size);
-        Page<Booking> result;
-        switch (state) {
-            case CURRENT:
-                result =  repository.findAllByBooker_IdAndStartBeforeAndEndAfter(userId, now, now, pageRequest);
-                break;
-            case PAST:
-                result =  repository.findAllByBooker_IdAndEndLessThanEqualOrderByStartDesc(userId, now, pageRequest);
-                break;
-            case FUTURE:
-                result =  repository.findAllByBooker_IdAndStartGreaterThanEqualOrderByStartDesc(userId, now, pageRequest);
-                break;
-            case WAITING:
-                result =  repository.findAllByBooker_IdAndStatusIs(userId, BookingStatus.WAITING, pageRequest);
-                break;
-            case REJECTED:
-                result =  repository.findAllByBooker_IdAndStatusIs(userId, BookingStatus.REJECTED, pageRequest);
-                break;
-            default:
-                result =  repository.findAllByBooker_IdOrderByEndDesc(userId, pageRequest);
-                break;
-        }
-        return result.stream().map(mapper::toDto).collect(Collectors.toList());
+    }
+
+    private CursorPage<BookingDto> toPage(List<BookingDto> bookings, State state, int size) {
+        Cursor next = null;
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            var last = bookings.get(size - 1);
+            next = new Cursor(state == State.ALL ? last.getEnd() : last.getStart(), last.getId());
+        }
+        return new CursorPage<>(bookings, next);
+    }
+
+    private void validateInput(BookingInputDto dto) {
+        if (dto.getItemId() == null || dto.getStart() == null || dto.getEnd() == null) {
+            throw new ValidationException("Переданы неверные параметры");
+        } else if (dto.getStart().isBefore(LocalDateTime.now())) {
+            throw new ValidationException("Начало бронирования не может быть в прошлом");
+        }
     }
 
     private void validateBooking(Booking booking) {
@@ -145,18 +297,62 @@ public class BookingService {
             throw new ValidationException("Конец бронирования не может быть равен началу");
         }
 
-        var start = booking.getStart();
-        var end = booking.getEnd();
-        var itemId = booking.getItem().getId();
-
-        var sameByStart = repository.findFirstByItem_IdAndStartBeforeAndEndAfter(itemId, start, start);
-        var sameByEnd = repository.findFirstByItem_IdAndStartBeforeAndEndAfter(itemId, end, end);
-        if (sameByStart != null || sameByEnd != null) {
+        if (intervalIndex.hasOverlap(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
             throw new NotFoundException("Бронирование на это время уже есть");
         }
     }
 
+    /**
+     * Inserts the bookings in one batch. When the batch hits the exclusion constraint because of
+     * a booking written concurrently, the bookings are inserted one by one instead, and the ones
+     * still overlapping are removed from {@code bookings} and reported on their entries.
+     */
+    private void insertAll(List<Booking> bookings, List<BookingBatchEntryDto> entries) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcRepository.insertAll(bookings));
+            return;
+        } catch (DataIntegrityViolationException e) {
+            if (!isOverlap(e)) {
+                throw e;
+            }
+        }
+        var inserted = new ArrayList<Booking>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            var booking = bookings.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcRepository.insertAll(List.of(booking)));
+                inserted.add(booking);
+            } catch (DataIntegrityViolationException e) {
+                if (!isOverlap(e)) {
+                    throw e;
+                }
+                entries.get(i).setError("Бронирование на это время уже есть");
+            }
+        }
+        bookings.retainAll(inserted);
+    }
+
+    private RuntimeException overlapOrRethrow(DataIntegrityViolationException e) {
+        if (isOverlap(e)) {
+            return new NotFoundException("Бронирование на это время уже есть");
+        }
+        return e;
+    }
+
+    private static boolean isOverlap(DataIntegrityViolationException e) {
+        var cause = e.getMostSpecificCause();
+        return cause instanceof SQLException && EXCLUSION_VIOLATION.equals(((SQLException) cause).getSQLState());
+    }
+
     private Booking findById(Long bookingId) {
         return repository.findById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование с таким id не существует"));
     }
+
+    private BookingRecord findRecordById(Long bookingId) {
+        var booking = repository.findById(bookingId);
+        if (booking.isPresent()) {
+            return booking.get();
+        }
+        return historyRepository.findById(bookingId).orElseThrow(() -> new NotFoundException("Бронирование с таким id не существует"));
+    }
 }
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.booking.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of id-keyed timers. Each of the {@value #LEVELS} levels has
+ * {@value #SLOTS} slots, a slot of level {@code n} covering {@code SLOTS^n} ticks; timers are
+ * moved one level down when the wheel reaches their slot. Slots are intrusive doubly-linked
+ * lists and timers are found by id through a map, so scheduling and cancelling are O(1)
+ * regardless of how many timers are pending. Timers further away than the top level can
+ * hold are parked in its last slot and re-placed when it is reached.
+ * Not thread-safe.
+ */
+public class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final Node[][] wheels = new Node[LEVELS][SLOTS];
+    private final Map<Long, Node> timers = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (Node[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Node(0, 0);
+                wheel[i].prev = wheel[i];
+                wheel[i].next = wheel[i];
+            }
+        }
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    public void schedule(long id, long deadlineMillis) {
+        cancel(id);
+        var node = new Node(id, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        timers.put(id, node);
+        place(node, currentTick + 1);
+    }
+
+    public boolean cancel(long id) {
+        var node = timers.remove(id);
+        if (node == null) {
+            return false;
+        }
+        node.unlink();
+        return true;
+    }
+
+    /**
+     * Moves the wheel up to {@code nowMillis}, passing the id of every timer due by then to
+     * {@code expired}. Expired timers are removed before the callback is invoked.
+     */
+    public void advance(long nowMillis, LongConsumer expired) {
+        var targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(wheels[level][index(currentTick, level)]);
+                }
+            }
+            var head = wheels[0][index(currentTick, 0)];
+            while (head.next != head) {
+                var node = head.next;
+                node.unlink();
+                timers.remove(node.id);
+                expired.accept(node.id);
+            }
+        }
+    }
+
+    private void cascade(Node head) {
+        var node = head.next;
+        head.prev = head;
+        head.next = head;
+        while (node != head) {
+            var next = node.next;
+            place(node, currentTick);
+            node = next;
+        }
+    }
+
+    private void place(Node node, long earliestTick) {
+        var tick = Math.max(node.deadlineTick, earliestTick);
+        var delta = tick - currentTick;
+        if (delta >= SPAN) {
+            tick = currentTick + SPAN - 1;
+            delta = SPAN - 1;
+        }
+        var level = 0;
+        while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        node.linkBefore(wheels[level][index(tick, level)]);
+    }
+
+    private static int index(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    }
+
+    private static class Node {
+        private final long id;
+        private final long deadlineTick;
+        private Node prev;
+        private Node next;
+
+        Node(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+
+        void linkBefore(Node head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package ru.practicum.shareit.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process publish/subscribe of server-sent events addressed to a user.
+ * Streams are written with non-blocking servlet output, so no thread is ever held by a stream,
+ * idle or slow: an event is queued in a small per-connection buffer and written at once by the
+ * publishing thread as far as the connection takes it, and the container writes the rest when
+ * the client has read enough. A subscriber whose buffer overflows, or whose connection has taken
+ * nothing for longer than {@code shareit.events.write-timeout}, is dropped, so a slow client cannot
+ * make the server accumulate events for it. Every stream gets a heartbeat comment each
+ * {@code shareit.events.heartbeat-interval} to keep proxies from closing it.
+ */
+@Slf4j
+@Component
+public class EventBus {
+    private static final byte[] SUBSCRIBED = comment("subscribed");
+    private static final byte[] HEARTBEAT = comment("heartbeat");
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeout;
+    private final long writeTimeout;
+
+    public EventBus(ObjectMapper objectMapper,
+                    @Value("${shareit.events.buffer-size}") int bufferSize,
+                    @Value("${shareit.events.timeout}") Duration timeout,
+                    @Value("${shareit.events.write-timeout}") Duration writeTimeout) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout.toMillis();
+        this.writeTimeout = writeTimeout.toNanos();
+    }
+
+    /**
+     * Turns the current request into an event stream, which stays open after the handler returns.
+     */
+    public void subscribe(String topic, Long userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        var context = request.startAsync(request, response);
+        context.setTimeout(timeout);
+        var subscriber = new Subscriber(key(topic, userId), context, response.getOutputStream());
+        context.addListener(subscriber);
+        subscriber.offer(SUBSCRIBED);
+        // The container calls onWritePossible once the handler returns, which writes the queued comment.
+        subscriber.output.setWriteListener(subscriber);
+        subscribers.computeIfAbsent(subscriber.key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+    }
+
+    public boolean hasSubscribers(String topic, Long userId) {
+        var current = subscribers.get(key(topic, userId));
+        return current != null && !current.isEmpty();
+    }
+
+    public void publish(String topic, Long userId, String name, Object data) {
+        var current = subscribers.get(key(topic, userId));
+        if (current == null) {
+            return;
+        }
+        var event = event(name, data);
+        for (Subscriber subscriber : current) {
+            deliver(subscriber, event);
+        }
+    }
+
+    /**
+     * Sends a heartbeat comment to every stream and drops the subscribers whose connection
+     * has not taken any data for longer than the write timeout.
+     */
+    @Scheduled(fixedDelayString = "${shareit.events.heartbeat-interval}")
+    public void heartbeat() {
+        var now = System.nanoTime();
+        for (Set<Subscriber> current : subscribers.values()) {
+            for (Subscriber subscriber : current) {
+                var blockedSince = subscriber.blockedSince;
+                if (blockedSince != 0 && now - blockedSince > writeTimeout) {
+                    log.warn("Stream of {} has not taken any data for more than {} ms, closing it",
+                            subscriber.key, TimeUnit.NANOSECONDS.toMillis(writeTimeout));
+                    subscriber.close();
+                } else {
+                    deliver(subscriber, HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(current -> current.forEach(Subscriber::close));
+    }
+
+    private void deliver(Subscriber subscriber, byte[] event) {
+        if (subscriber.offer(event)) {
+            subscriber.write();
+        } else {
+            log.warn("Event buffer of {} is full, closing the stream", subscriber.key);
+            subscriber.close();
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.key, (key, current) -> {
+            current.remove(subscriber);
+            return current.isEmpty() ? null : current;
+        });
+    }
+
+    private byte[] event(String name, Object data) {
+        try {
+            var json = objectMapper.writeValueAsString(data);
+            return ("event:" + name + "\ndata:" + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] comment(String text) {
+        return (":" + text + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String key(String topic, Long userId) {
+        return topic + ":" + userId;
+    }
+
+    /**
+     * One stream. Its buffer and every write are guarded by the subscriber's monitor, since events are
+     * written both by publishing threads and by the container when the connection becomes writable.
+     */
+    private class Subscriber implements WriteListener, AsyncListener {
+        private final String key;
+        private final AsyncContext context;
+        private final ServletOutputStream output;
+        private final ArrayDeque<byte[]> buffer = new ArrayDeque<>();
+        private boolean unflushed;
+        private boolean closed;
+        private volatile long blockedSince;
+
+        Subscriber(String key, AsyncContext context, ServletOutputStream output) {
+            this.key = key;
+            this.context = context;
+            this.output = output;
+        }
+
+        synchronized boolean offer(byte[] event) {
+            if (closed) {
+                return true;
+            }
+            if (buffer.size() >= bufferSize) {
+                return false;
+            }
+            buffer.add(event);
+            return true;
+        }
+
+        void write() {
+            if (!drain()) {
+                close();
+            }
+        }
+
+        /**
+         * Writes queued events while the connection takes them without blocking. When it stops taking
+         * them, the container calls {@link #onWritePossible()} once it can take more.
+         */
+        private synchronized boolean drain() {
+            if (closed) {
+                return true;
+            }
+            try {
+                while (output.isReady()) {
+                    var event = buffer.poll();
+                    if (event != null) {
+                        output.write(event);
+                        unflushed = true;
+                    } else if (unflushed) {
+                        unflushed = false;
+                        output.flush();
+                    } else {
+                        blockedSince = 0;
+                        return true;
+                    }
+                }
+                if (blockedSince == 0) {
+                    blockedSince = System.nanoTime();
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Completes the stream even if it is already closed: the container falls back to an error page
+         * dispatch unless a failed request is completed from its {@link #onError(AsyncEvent)}.
+         */
+        void close() {
+            synchronized (this) {
+                closed = true;
+                buffer.clear();
+            }
+            unsubscribe(this);
+            try {
+                context.complete();
+            } catch (IllegalStateException e) {
+                // Already completed.
+            }
+        }
+
+        @Override
+        public void onWritePossible() {
+            blockedSince = 0;
+            write();
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            synchronized (this) {
+                closed = true;
+                buffer.clear();
+            }
+            unsubscribe(this);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -1,14 +1,26 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentInputDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
 import ru.practicum.shareit.Config;
+import ru.practicum.shareit.item.enums.ImportFormat;
+import ru.practicum.shareit.item.service.ItemExporter;
+import ru.practicum.shareit.item.service.ItemImporter;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,17 +28,42 @@ import java.util.List;
 @RequestMapping(path = "/items")
 public class ItemController {
     private final ItemService service;
+    private final ItemImporter importer;
+    private final ItemExporter exporter;
 
     @GetMapping("{id}")
     public ItemDtoWithBooking get(@PathVariable Long id, @RequestHeader(Config.userHeaderName) Long userId) {
         return service.getWithBookings(id, userId);
     }
 
+    @GetMapping("{id}/availability")
+    public List<TimeSlotDto> getAvailability(@PathVariable Long id,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return service.getAvailability(id, from, to);
+    }
+
+    @GetMapping("{id}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable Long id, @RequestParam(defaultValue = "10") Integer size, @RequestParam(required = false) String cursor) {
+        return service.getComments(id, size, cursor).toResponse();
+    }
+
+    @GetMapping("{id}/matching-requests")
+    public List<ItemRequestDto> getMatchingRequests(@PathVariable Long id, @RequestHeader(Config.userHeaderName) Long userId) {
+        return service.getMatchingRequests(id, userId);
+    }
+
     @GetMapping
     public List<ItemDtoWithBooking> getAll(@RequestParam(defaultValue = "0") Integer from, @RequestParam(defaultValue = "10") Integer size, @RequestHeader(Config.userHeaderName) Long userId) {
         return service.getAllWithBookings(from, size, userId);
     }
 
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestHeader(Config.userHeaderName) Long userId) {
+        var body = exporter.export(userId);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(Config.ndjsonMediaType)).body(body);
+    }
+
     @DeleteMapping("{id}")
     public void delete(@PathVariable Long id) {
         service.remove(id);
@@ -37,6 +74,16 @@ public class ItemController {
         return service.create(dto, userId);
     }
 
+    @PostMapping(path = "import", consumes = Config.ndjsonMediaType)
+    public ItemImportResultDto importNdjson(InputStream body, @RequestHeader(Config.userHeaderName) Long userId) {
+        return importer.importItems(body, ImportFormat.NDJSON, userId);
+    }
+
+    @PostMapping(path = "import", consumes = Config.csvMediaType)
+    public ItemImportResultDto importCsv(InputStream body, @RequestHeader(Config.userHeaderName) Long userId) {
+        return importer.importItems(body, ImportFormat.CSV, userId);
+    }
+
     @PatchMapping("{id}")
     public ItemDto change(@RequestBody ItemDto dto, @PathVariable Long id, @RequestHeader(Config.userHeaderName) Long userId) {
         return service.patch(dto, id, userId);
@@ -47,6 +94,11 @@ public class ItemController {
         return service.search(text, from, size);
     }
 
+    @GetMapping("suggest")
+    public List<String> suggest(@RequestParam(defaultValue = "") String prefix, @RequestParam(defaultValue = "10") Integer limit) {
+        return service.suggest(prefix, limit);
+    }
+
     @PostMapping("{itemId}/comment")
     public CommentDto createComment(@RequestBody CommentInputDto dto, @PathVariable Long itemId, @RequestHeader(Config.userHeaderName) Long userId) {
         return service.createComment(dto, itemId, userId);
@@ -17,4 +17,5 @@ public class ItemDtoWithBooking {
     private BookingInfoDto nextBooking;
     private BookingInfoDto lastBooking;
     private List<CommentDto> comments;
+    private Integer commentCount;
 }
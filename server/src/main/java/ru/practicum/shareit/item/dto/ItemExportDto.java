@@ -0,0 +1,18 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+
+@Data
+@AllArgsConstructor
+public class ItemExportDto {
+    private Long id;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Long requestId;
+    private BookingInfoDto lastBooking;
+    private BookingInfoDto nextBooking;
+    private Integer commentCount;
+}
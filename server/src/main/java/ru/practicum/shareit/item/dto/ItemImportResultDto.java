@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ItemImportResultDto {
+    private Integer accepted;
+    private Integer rejected;
+    private List<ItemImportErrorDto> errors;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.enums;
+
+public enum SearchMode {
+    LIKE,
+    FULLTEXT,
+    TRIGRAM
+}
@@ -2,13 +2,16 @@ package ru.practicum.shareit.item.mapper;
 
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class ItemMapper {
@@ -30,7 +33,21 @@ public class ItemMapper {
                 current,
                 next,
                 last,
-                new ArrayList<>());
+                new ArrayList<>(),
+                0);
+    }
+
+    public ItemDtoWithBooking toDtoWithBookings(ItemView view, boolean withBookings, List<CommentDto> comments) {
+        return new ItemDtoWithBooking(
+                view.getItemId(),
+                view.getName(),
+                view.getDescription(),
+                view.getAvailable(),
+                withBookings ? toInfo(view.getCurrentBookingId(), view.getCurrentBookerId()) : null,
+                withBookings ? toInfo(view.getNextBookingId(), view.getNextBookerId()) : null,
+                withBookings ? toInfo(view.getLastBookingId(), view.getLastBookerId()) : null,
+                comments,
+                view.getCommentCount());
     }
 
     public Item toItem(User user, ItemDto item, ItemRequest request) {
@@ -42,4 +59,8 @@ public class ItemMapper {
                 user,
                 request);
     }
+
+    private BookingInfoDto toInfo(Long bookingId, Long bookerId) {
+        return bookingId != null ? new BookingInfoDto(bookingId, bookerId) : null;
+    }
 }
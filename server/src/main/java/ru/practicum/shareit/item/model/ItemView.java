@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized item card served by {@code GET /items/{id}}. Booking summaries are correct
+ * until {@link #validUntil}, when the next booking starts or the current one ends.
+ */
+@Entity
+@Table(name = "item_view")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemView {
+    @Id
+    private Long itemId;
+    private String name;
+    private String description;
+    private Boolean available;
+    private Long ownerId;
+    private Long currentBookingId;
+    private Long currentBookerId;
+    private Long nextBookingId;
+    private Long nextBookerId;
+    private Long lastBookingId;
+    private Long lastBookerId;
+    private Integer commentCount;
+    private String comments;
+    private LocalDateTime validUntil;
+
+    public boolean isValid(LocalDateTime now) {
+        return validUntil == null || now.isBefore(validUntil);
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemCommentsInfo;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class CommentJdbcRepository {
+    private static final String SELECT_LATEST = "SELECT item_id, id, text, author_name, created, total FROM ("
+            + "SELECT c.item_id, c.id, c.text, u.name AS author_name, c.created, "
+            + "ROW_NUMBER() OVER (PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS position, "
+            + "COUNT(*) OVER (PARTITION BY c.item_id) AS total "
+            + "FROM comments c JOIN users u ON u.id = c.author_id WHERE c.item_id IN (:itemIds)"
+            + ") t WHERE position <= :limit ORDER BY item_id, position";
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Returns up to {@code limit} newest comments of every item together with its total number of comments.
+     * Items without comments are absent from the result.
+     */
+    public Map<Long, ItemCommentsInfo> findLatest(Collection<Long> itemIds, int limit) {
+        var result = new HashMap<Long, ItemCommentsInfo>();
+        if (itemIds.isEmpty()) {
+            return result;
+        }
+        var parameters = new MapSqlParameterSource()
+                .addValue("itemIds", itemIds)
+                .addValue("limit", limit);
+        namedJdbcTemplate.query(SELECT_LATEST, parameters, rs -> {
+            var info = result.computeIfAbsent(rs.getLong("item_id"), id -> new ItemCommentsInfo());
+            info.setCount(rs.getInt("total"));
+            info.getLatest().add(new CommentDto(
+                    rs.getLong("id"),
+                    rs.getString("text"),
+                    rs.getString("author_name"),
+                    rs.getTimestamp("created").toLocalDateTime()));
+        });
+        return result;
+    }
+}
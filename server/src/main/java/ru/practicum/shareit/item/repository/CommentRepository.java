@@ -1,15 +1,21 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
-import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItem_Id(Long itemId);
+    String SELECT_DTO = "SELECT new ru.practicum.shareit.item.dto.CommentDto(c.id, c.text, a.name, c.created) "
+            + "FROM Comment c JOIN c.author a WHERE c.item.id = :itemId ";
 
-    @Query("SELECT c FROM Comment c WHERE c.item in :items ORDER BY c.created DESC")
-    List<Comment> findByItemIn(List<Item> items);
+    @Query(SELECT_DTO + "ORDER BY c.created DESC, c.id DESC")
+    List<CommentDto> findPageByItem(Long itemId, Pageable page);
+
+    @Query(SELECT_DTO + "AND (c.created < :created OR (c.created = :created AND c.id < :id)) ORDER BY c.created DESC, c.id DESC")
+    List<CommentDto> findPageByItemAfter(Long itemId, LocalDateTime created, Long id, Pageable page);
 }
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.item.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.item.dto.ItemExportDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class ItemJdbcRepository {
+    private static final String INSERT = "INSERT INTO item (name, description, available, owner_id, item_request_id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_EXPORT = "SELECT i.id, i.name, i.description, i.available, i.item_request_id, "
+            + "l.id AS last_id, l.booker_id AS last_booker_id, n.id AS next_id, n.booker_id AS next_booker_id, "
+            + "COALESCE(c.total, 0) AS comment_count FROM item i "
+            + "LEFT JOIN (SELECT item_id, id, booker_id, "
+            + "ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY start_date DESC, id DESC) AS position FROM booking_history "
+            + "WHERE item_id IN (SELECT id FROM item WHERE owner_id = ?) AND start_date <= ?"
+            + ") l ON l.item_id = i.id AND l.position = 1 "
+            + "LEFT JOIN (SELECT item_id, id, booker_id, "
+            + "ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY start_date, id) AS position FROM booking "
+            + "WHERE item_id IN (SELECT id FROM item WHERE owner_id = ?) AND start_date > ? AND status = 'APPROVED'"
+            + ") n ON n.item_id = i.id AND n.position = 1 "
+            + "LEFT JOIN (SELECT item_id, COUNT(*) AS total FROM comments "
+            + "WHERE item_id IN (SELECT id FROM item WHERE owner_id = ?) GROUP BY item_id"
+            + ") c ON c.item_id = i.id "
+            + "WHERE i.owner_id = ? ORDER BY i.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<Item> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (var statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (Item item : items) {
+                    statement.setString(1, item.getName());
+                    statement.setString(2, item.getDescription());
+                    statement.setBoolean(3, item.getAvailable());
+                    statement.setLong(4, item.getOwner().getId());
+                    if (item.getRequest() != null) {
+                        statement.setLong(5, item.getRequest().getId());
+                    } else {
+                        statement.setNull(5, Types.BIGINT);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (var keys = statement.getGeneratedKeys()) {
+                    for (Item item : items) {
+                        keys.next();
+                        item.setId(keys.getLong("id"));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Passes every item of the owner to {@code consumer} while reading a forward-only cursor
+     * {@code fetchSize} rows at a time. PostgreSQL only honours the fetch size inside a transaction.
+     */
+    public void streamByOwner(Long ownerId, LocalDateTime now, int fetchSize, Consumer<ItemExportDto> consumer) {
+        var timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(SELECT_EXPORT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, ownerId);
+            statement.setTimestamp(2, timestamp);
+            statement.setLong(3, ownerId);
+            statement.setTimestamp(4, timestamp);
+            statement.setLong(5, ownerId);
+            statement.setLong(6, ownerId);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(new ItemExportDto(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getBoolean("available"),
+                rs.getObject("item_request_id", Long.class),
+                toInfo(rs, "last_id", "last_booker_id"),
+                toInfo(rs, "next_id", "next_booker_id"),
+                rs.getInt("comment_count"))));
+    }
+
+    private BookingInfoDto toInfo(ResultSet rs, String idColumn, String bookerColumn) throws SQLException {
+        var id = rs.getObject(idColumn, Long.class);
+        return id != null ? new BookingInfoDto(id, rs.getLong(bookerColumn)) : null;
+    }
+}
@@ -1,15 +1,46 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemNameDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwner_IdOrderById(Long ownerId, PageRequest page);
 
-    @Query(value = "SELECT * from item i where (lower(i.name) like %:text% or lower(i.description) like %:text%) AND i.available = True", nativeQuery = true)
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemNameDto(i.id, i.name) "
+            + "FROM Item i WHERE i.available = true AND i.id > :afterId ORDER BY i.id")
+    List<ItemNameDto> findAvailableNamesAfter(Long afterId, Pageable page);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, i.request.id) "
+            + "FROM Item i WHERE i.available = true AND i.id > :afterId ORDER BY i.id")
+    List<ItemDto> findAvailableDtosAfter(Long afterId, Pageable page);
+
+    @Query("SELECT i FROM Item i JOIN FETCH i.owner WHERE i.id IN :ids")
+    List<Item> findAllWithOwnerByIdIn(Collection<Long> ids);
+
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, i.request.id) "
+            + "FROM Item i WHERE i.request.id IN :requestIds ORDER BY i.id")
+    List<ItemDto> findDtosByRequestIdIn(Collection<Long> requestIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> lockAllByIdIn(Collection<Long> ids);
+
+    @Query(value = "SELECT * from item i where (lower(i.name) like %:text% or lower(i.description) like %:text%) AND i.available = True "
+            + "ORDER BY i.id", nativeQuery = true)
     List<Item> findByText(String text, PageRequest pageRequest);
+
+    @Query(value = "SELECT i.* FROM item i, to_tsquery('simple', :query) q WHERE i.search_vector @@ q AND i.available = True "
+            + "ORDER BY ts_rank(i.search_vector, q) DESC, i.id", nativeQuery = true)
+    List<Item> findByFullText(String query, PageRequest pageRequest);
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.ItemView;
+
+import java.time.LocalDateTime;
+
+public interface ItemViewRepository extends JpaRepository<ItemView, Long> {
+    @Transactional
+    @Modifying
+    @Query("UPDATE ItemView v SET v.validUntil = :date WHERE v.itemId = :itemId AND (v.validUntil IS NULL OR v.validUntil > :date)")
+    int expireNotLaterThan(Long itemId, LocalDateTime date);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ItemView v SET v.validUntil = :date "
+            + "WHERE v.itemId IN (SELECT c.item.id FROM Comment c WHERE c.author.id = :authorId)")
+    int expireCommentedBy(Long authorId, LocalDateTime date);
+}
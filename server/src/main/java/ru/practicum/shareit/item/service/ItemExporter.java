@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.item.repository.ItemJdbcRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes the whole catalog of an owner as NDJSON, one item per line, straight from a database cursor,
+ * so the heap holds at most {@code shareit.item.export.fetch-size} rows whatever the catalog size.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemExporter {
+    private static final int LINE_SEPARATOR = '\n';
+
+    private final UserService userService;
+    private final ItemJdbcRepository itemJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${shareit.item.export.fetch-size}")
+    private int fetchSize;
+
+    public StreamingResponseBody export(Long userId) {
+        userService.checkExists(userId);
+        return output -> {
+            var transaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> itemJdbcRepository.streamByOwner(userId, LocalDateTime.now(), fetchSize, item -> {
+                try {
+                    output.write(objectMapper.writeValueAsBytes(item));
+                    output.write(LINE_SEPARATOR);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            output.flush();
+        };
+    }
+}
@@ -0,0 +1,256 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.enums.ImportFormat;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemJdbcRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Imports items from an NDJSON or CSV body line by line. Valid rows are collected into chunks
+ * of {@code shareit.item.import.batch-size}; every chunk resolves its request ids with one query
+ * and is inserted with one JDBC batch in its own transaction, so memory use does not depend on
+ * the size of the upload and a failure keeps the chunks imported before it.
+ * CSV needs a header naming the columns {@code name, description, available} and optionally {@code requestId};
+ * quoted values may not span several lines.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemImporter {
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("name", "description", "available");
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private final UserService userService;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestService itemRequestService;
+    private final ItemJdbcRepository itemJdbcRepository;
+    private final ItemMapper itemMapper;
+    private final ItemTrigramIndex trigramIndex;
+    private final ItemNameSuggester nameSuggester;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${shareit.item.import.batch-size}")
+    private int batchSize;
+
+    @Value("${shareit.item.import.max-errors}")
+    private int maxErrors;
+
+    public ItemImportResultDto importItems(InputStream body, ImportFormat format, Long userId) {
+        var owner = userService.get(userId);
+        var result = new ItemImportResultDto(0, 0, new ArrayList<>());
+        var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        var rows = new ArrayList<Row>(batchSize);
+        Map<String, Integer> columns = null;
+        var lineNumber = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && line.startsWith(BYTE_ORDER_MARK)) {
+                    line = line.substring(BYTE_ORDER_MARK.length());
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ImportFormat.CSV && columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+                try {
+                    var dto = format == ImportFormat.CSV ? parseCsv(line, columns) : parseJson(line);
+                    validate(dto);
+                    rows.add(new Row(lineNumber, dto));
+                } catch (ValidationException e) {
+                    reject(result, lineNumber, e.getMessage());
+                }
+                if (rows.size() == batchSize) {
+                    insert(rows, owner, result);
+                    rows.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        insert(rows, owner, result);
+        return result;
+    }
+
+    private void insert(List<Row> rows, User owner, ItemImportResultDto result) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        var items = transactionTemplate.execute(status -> {
+            var requestIds = rows.stream()
+                    .map(row -> row.getItem().getRequestId())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            var existing = requestIds.isEmpty() ? requestIds : itemRequestRepository.findExistingIds(requestIds);
+
+            var accepted = new ArrayList<Item>(rows.size());
+            for (Row row : rows) {
+                var requestId = row.getItem().getRequestId();
+                if (requestId != null && !existing.contains(requestId)) {
+                    reject(result, row.getLine(), "Запрос с таким id не существует");
+                    continue;
+                }
+                ItemRequest request = null;
+                if (requestId != null) {
+                    request = new ItemRequest();
+                    request.setId(requestId);
+                }
+                accepted.add(itemMapper.toItem(owner, row.getItem(), request));
+            }
+            itemJdbcRepository.insertAll(accepted);
+            return accepted;
+        });
+        result.setAccepted(result.getAccepted() + items.size());
+        for (Item item : items) {
+            trigramIndex.put(item);
+            nameSuggester.put(item);
+        }
+        itemRequestService.answered(items.stream()
+                .filter(item -> item.getRequest() != null)
+                .map(item -> item.getRequest().getId())
+                .collect(Collectors.toSet()));
+    }
+
+    private void reject(ItemImportResultDto result, int line, String error) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < maxErrors) {
+            result.getErrors().add(new ItemImportErrorDto(line, error));
+        }
+    }
+
+    private void validate(ItemDto dto) {
+        if (dto.getName() == null || dto.getName().isBlank() || dto.getName().length() > 255) {
+            throw new ValidationException("Неверное название предмета");
+        } else if (dto.getDescription() == null || dto.getDescription().isBlank() || dto.getDescription().length() > 512) {
+            throw new ValidationException("Неверное описание предмета");
+        } else if (dto.getAvailable() == null) {
+            throw new ValidationException("Не указана доступность предмета");
+        }
+    }
+
+    private ItemDto parseJson(String line) {
+        try {
+            var dto = objectMapper.readValue(line, ItemDto.class);
+            if (dto == null) {
+                throw new ValidationException("Строка не является объектом JSON");
+            }
+            dto.setId(null);
+            return dto;
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Строка не является объектом JSON");
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        var names = parseCsvLine(line);
+        var columns = new HashMap<String, Integer>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String column : REQUIRED_CSV_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new ValidationException("В заголовке CSV нет колонки " + column);
+            }
+        }
+        return columns;
+    }
+
+    private ItemDto parseCsv(String line, Map<String, Integer> columns) {
+        var values = parseCsvLine(line);
+        var available = column(values, columns, "available");
+        if (available != null && !Arrays.asList("true", "false").contains(available.toLowerCase())) {
+            throw new ValidationException("Неверное значение available");
+        }
+        var requestId = column(values, columns, "requestId");
+        try {
+            return new ItemDto(
+                    null,
+                    column(values, columns, "name"),
+                    column(values, columns, "description"),
+                    available != null ? Boolean.valueOf(available) : null,
+                    requestId != null ? Long.valueOf(requestId) : null);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Неверное значение requestId");
+        }
+    }
+
+    private String column(List<String> values, Map<String, Integer> columns, String name) {
+        var index = columns.get(name);
+        if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+            return null;
+        }
+        return values.get(index);
+    }
+
+    private List<String> parseCsvLine(String line) {
+        var values = new ArrayList<String>();
+        var value = new StringBuilder();
+        var quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Незакрытые кавычки в строке CSV");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Row {
+        private final int line;
+        private final ItemDto item;
+    }
+}
@@ -0,0 +1,333 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemNameDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Suggests names of available items by prefix from an in-memory radix trie. Each trie node keeps
+ * the most frequent names of its subtree, so a lookup only walks the prefix. The trie is
+ * rebuilt in the background from an {@code (id, name)} projection, which keeps the rebuild
+ * out of the second-level cache, and swapped in; changes made by
+ * {@link ItemService} are applied to the live trie and replayed on the one being built.
+ */
+@Slf4j
+@Component
+public class ItemNameSuggester {
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final int maxLimit;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Trie trie;
+    private List<Consumer<Trie>> pending;
+
+    public ItemNameSuggester(ItemRepository itemRepository,
+                             @Value("${shareit.item.suggest.max-limit}") int maxLimit) {
+        this.itemRepository = itemRepository;
+        this.maxLimit = maxLimit;
+        this.trie = new Trie(maxLimit);
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return trie.suggest(prefix.toLowerCase(), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            apply(target -> target.put(item.getId(), item.getName()));
+        } else {
+            remove(item.getId());
+        }
+    }
+
+    public void remove(Long itemId) {
+        apply(target -> target.remove(itemId));
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${shareit.item.suggest.rebuild-interval}")
+    public void rebuild() {
+        var started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        var next = new Trie(maxLimit);
+        try {
+            var afterId = 0L;
+            while (true) {
+                var batch = itemRepository.findAvailableNamesAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (ItemNameDto item : batch) {
+                    next.load(item.getId(), item.getName());
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+            next.computeTops(next.root);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(change -> change.accept(next));
+            pending = null;
+            trie = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Item name trie rebuilt in {} ms: {} items, {} names",
+                System.currentTimeMillis() - started, next.names.size(), next.distinctNames);
+    }
+
+    private void apply(Consumer<Trie> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(trie);
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Radix trie of lower-cased names with the number of items carrying each name. Nodes whose
+     * count drops to zero stay in place until the next rebuild.
+     */
+    private static class Trie {
+        private static final Node[] NO_NODES = new Node[0];
+        private static final Comparator<Node> BY_POPULARITY = Comparator.<Node>comparingInt(node -> -node.count)
+                .thenComparing(node -> node.name);
+
+        private final int topSize;
+        private final Node root = new Node("");
+        private final Map<Long, String> names = new HashMap<>();
+        private int distinctNames;
+
+        Trie(int topSize) {
+            this.topSize = topSize;
+        }
+
+        List<String> suggest(String prefix, int limit) {
+            var node = root;
+            var position = 0;
+            while (position < prefix.length()) {
+                var child = node.child(prefix.charAt(position));
+                if (child == null) {
+                    return List.of();
+                }
+                var length = Math.min(child.edge.length(), prefix.length() - position);
+                if (!child.edge.regionMatches(0, prefix, position, length)) {
+                    return List.of();
+                }
+                position += length;
+                node = child;
+            }
+            var result = new ArrayList<String>(Math.min(limit, node.top.length));
+            for (int i = 0; i < node.top.length && result.size() < limit; i++) {
+                result.add(node.top[i].name);
+            }
+            return result;
+        }
+
+        void load(long id, String name) {
+            var key = name.toLowerCase();
+            if (names.put(id, key) == null) {
+                increment(key, name, null);
+            }
+        }
+
+        void put(long id, String name) {
+            var key = name.toLowerCase();
+            var previous = names.put(id, key);
+            if (key.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                decrement(previous);
+            }
+            var path = new ArrayList<Node>();
+            increment(key, name, path);
+            updateTops(path);
+        }
+
+        void remove(long id) {
+            var previous = names.remove(id);
+            if (previous != null) {
+                decrement(previous);
+            }
+        }
+
+        void computeTops(Node node) {
+            for (Node child : node.children) {
+                computeTops(child);
+            }
+            node.top = top(node);
+        }
+
+        private void increment(String key, String name, List<Node> path) {
+            var node = root;
+            addTo(path, node);
+            var position = 0;
+            while (position < key.length()) {
+                var index = node.childIndex(key.charAt(position));
+                if (index < 0) {
+                    var child = new Node(key.substring(position));
+                    node.insertChild(-index - 1, child);
+                    node = child;
+                    addTo(path, node);
+                    break;
+                }
+                var child = node.children[index];
+                var common = commonPrefix(child.edge, key, position);
+                if (common < child.edge.length()) {
+                    var middle = new Node(child.edge.substring(0, common));
+                    child.edge = child.edge.substring(common);
+                    middle.children = new Node[]{child};
+                    middle.top = child.top;
+                    node.children[index] = middle;
+                    child = middle;
+                }
+                node = child;
+                addTo(path, node);
+                position += common;
+            }
+            if (node.count++ == 0) {
+                node.name = name;
+                distinctNames++;
+            }
+        }
+
+        private void decrement(String key) {
+            var path = new ArrayList<Node>();
+            var node = root;
+            path.add(node);
+            var position = 0;
+            while (position < key.length()) {
+                node = node.child(key.charAt(position));
+                if (node == null || !key.startsWith(node.edge, position)) {
+                    return;
+                }
+                path.add(node);
+                position += node.edge.length();
+            }
+            if (node.count > 0 && --node.count == 0) {
+                distinctNames--;
+            }
+            updateTops(path);
+        }
+
+        private void updateTops(List<Node> path) {
+            for (int i = path.size() - 1; i >= 0; i--) {
+                var node = path.get(i);
+                node.top = top(node);
+            }
+        }
+
+        private Node[] top(Node node) {
+            var candidates = new ArrayList<Node>();
+            if (node.count > 0) {
+                candidates.add(node);
+            }
+            for (Node child : node.children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(BY_POPULARITY);
+            return candidates.subList(0, Math.min(topSize, candidates.size())).toArray(NO_NODES);
+        }
+
+        private static void addTo(List<Node> path, Node node) {
+            if (path != null) {
+                path.add(node);
+            }
+        }
+
+        private static int commonPrefix(String edge, String key, int from) {
+            var length = Math.min(edge.length(), key.length() - from);
+            var common = 0;
+            while (common < length && edge.charAt(common) == key.charAt(from + common)) {
+                common++;
+            }
+            return common;
+        }
+    }
+
+    private static class Node {
+        private String edge;
+        private Node[] children = Trie.NO_NODES;
+        private Node[] top = Trie.NO_NODES;
+        private int count;
+        private String name;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+
+        Node child(char first) {
+            var index = childIndex(first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                var middle = (low + high) >>> 1;
+                var value = children[middle].edge.charAt(0);
+                if (value < first) {
+                    low = middle + 1;
+                } else if (value > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        void insertChild(int index, Node child) {
+            var grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+    }
+}
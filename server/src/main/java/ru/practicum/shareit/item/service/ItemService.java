@@ -1,34 +1,41 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import ru.practicum.shareit.booking.dto.BookingInfoDto;
-import ru.practicum.shareit.booking.mapper.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.ItemBookingsInfo;
+import ru.practicum.shareit.booking.model.BookingHistory;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.BookingHistoryRepository;
+import ru.practicum.shareit.booking.repository.BookingJdbcRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentInputDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoWithBooking;
-import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.dto.TimeSlotDto;
+import ru.practicum.shareit.item.enums.SearchMode;
+import ru.practicum.shareit.item.dto.ItemCommentsInfo;
+import ru.practicum.shareit.item.repository.CommentJdbcRepository;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 
 @Service
@@ -37,90 +44,102 @@ public class ItemService {
 
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
-    private final BookingRepository bookingRepository;
+    private final CommentJdbcRepository commentJdbcRepository;
+    private final BookingHistoryRepository bookingHistoryRepository;
+    private final BookingJdbcRepository bookingJdbcRepository;
     private final UserService userService;
     private final ItemRequestService itemRequestService;
-    private final BookingMapper bookingMapper;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemTrigramIndex trigramIndex;
+    private final ItemNameSuggester nameSuggester;
+    private final ItemViewProjector itemViewProjector;
+
+    @Value("${shareit.item.search.mode}")
+    private SearchMode searchMode;
+
+    @Value("${shareit.item.comments.latest-limit}")
+    private int latestCommentsLimit;
 
     public Item get(Long id) {
         return itemRepository.findById(id).orElseThrow(() -> new NotFoundException("Предмет с таким id не существует"));
     }
 
-    public ItemDtoWithBooking getWithBookings(Long id, Long userId) {
-        var item = get(id);
-        BookingInfoDto current = null;
-        BookingInfoDto next = null;
-        BookingInfoDto last = null;
-        if (item.getOwner().getId().equals(userId)) {
-            var currentData = bookingRepository.findCurrentByItem(item.getId());
-            if (currentData != null) {
-                current = bookingMapper.toInfo(currentData);
-            }
-
-            var bookings = bookingRepository.findNextBookingsByItem(item.getId());
-            if (bookings.size() != 0) {
-                next = bookingMapper.toInfo(bookings.get(0));
-            }
+    public Map<Long, Item> getAll(Collection<Long> ids) {
+        return itemRepository.findAllWithOwnerByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+    }
 
-            bookings = bookingRepository.findLastBookingsByItem(item.getId());
-            if (bookings.size() != 0) {
-                last = bookingMapper.toInfo(bookings.get(0));
-            }
-        }
-        var dto = itemMapper.toDtoWithBookings(current, next, last, item);
-        var comments = commentRepository.findAllByItem_Id(item.getId());
-        var commentsDto = dto.getComments();
-        for (Comment comment : comments) {
-            commentsDto.add(comment.toDto());
+    public List<TimeSlotDto> getAvailability(Long id, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Переданы неверные параметры");
         }
+        get(id);
+        return bookingIntervalIndex.freeSlots(id, from, to);
+    }
 
-        dto.setComments(commentsDto);
+    public ItemDtoWithBooking getWithBookings(Long id, Long userId) {
+        var view = itemViewProjector.get(id);
+        return itemMapper.toDtoWithBookings(view, view.getOwnerId().equals(userId), itemViewProjector.getComments(view));
+    }
 
-        return dto;
+    public List<ItemRequestDto> getMatchingRequests(Long id, Long userId) {
+        userService.checkExists(userId);
+        var item = get(id);
+        if (!userId.equals(item.getOwner().getId())) {
+            throw new NotFoundException("Пользователь не является владельцем");
+        }
+        return itemRequestService.getMatching(item);
     }
 
     public List<ItemDtoWithBooking> getAllWithBookings(Integer from, Integer size, Long userId) {
-        userService.get(userId);
+        userService.checkExists(userId);
         var items = itemRepository.findAllByOwner_IdOrderById(userId, PageRequest.of(from / size, size));
-        var result = new ArrayList<ItemDtoWithBooking>();
+        var itemIds = items.stream().map(Item::getId).collect(toList());
 
-        var comments = commentRepository.findByItemIn(items)
-                .stream()
-                .collect(groupingBy(Comment::getItem, toList()));
-
-        var currentBookings = bookingRepository.findCurrentBookingsByUser(userId)
-                .stream()
-                .collect(groupingBy(Booking::getItem, toList()));
-
-        var lastBookings = bookingRepository.findLastBookingsByUser(userId)
-                .stream()
-                .collect(groupingBy(Booking::getItem, toList()));
-
-        var nextBookings = bookingRepository.findNextBookingsByUser(userId)
-                .stream()
-                .collect(groupingBy(Booking::getItem, toList()));
+        var comments = commentJdbcRepository.findLatest(itemIds, latestCommentsLimit);
+        var bookings = bookingJdbcRepository.findItemBookings(itemIds, LocalDateTime.now());
 
+        var result = new ArrayList<ItemDtoWithBooking>(items.size());
         for (Item item : items) {
-            BookingInfoDto currentBooking = getBookingByItemFromMap(currentBookings, item);
-
-            BookingInfoDto nextBooking = getBookingByItemFromMap(nextBookings, item);
-
-            BookingInfoDto lastBooking = getBookingByItemFromMap(lastBookings, item);
-
-            var itemDto = itemMapper.toDtoWithBookings(currentBooking, nextBooking, lastBooking, item);
-            var itemComments = getCommentsFromMap(comments, item);
-            itemDto.setComments(itemComments);
-
+            var info = bookings.getOrDefault(item.getId(), new ItemBookingsInfo());
+            var itemDto = itemMapper.toDtoWithBookings(info.getCurrent(), info.getNext(), info.getLast(), item);
+            var itemComments = comments.getOrDefault(item.getId(), new ItemCommentsInfo());
+            itemDto.setComments(itemComments.getLatest());
+            itemDto.setCommentCount(itemComments.getCount());
             result.add(itemDto);
         }
 
         return result;
     }
 
+    public CursorPage<CommentDto> getComments(Long id, Integer size, String cursor) {
+        if (size <= 0) {
+            throw new ValidationException("Переданы неверные параметры");
+        }
+        var after = cursor != null ? Cursor.decode(cursor) : null;
+        if (!itemRepository.existsById(id)) {
+            throw new NotFoundException("Предмет с таким id не существует");
+        }
+        var page = PageRequest.of(0, size + 1);
+        var comments = after != null
+                ? commentRepository.findPageByItemAfter(id, after.getDate(), after.getId(), page)
+                : commentRepository.findPageByItem(id, page);
+        Cursor next = null;
+        if (comments.size() > size) {
+            comments = comments.subList(0, size);
+            var last = comments.get(size - 1);
+            next = new Cursor(last.getCreated(), last.getId());
+        }
+        return new CursorPage<>(comments, next);
+    }
+
     public void remove(Long id) {
         itemRepository.delete(get(id));
+        trigramIndex.remove(id);
+        nameSuggester.remove(id);
     }
 
     public ItemDto create(ItemDto dto, Long userId) {
@@ -131,21 +150,28 @@ public class ItemService {
             request = itemRequestService.get(dto.getRequestId());
         }
 
-        var item = itemMapper.toItem(user, dto, request);
-        return itemMapper.toDto(itemRepository.save(item));
+        var item = itemRepository.save(itemMapper.toItem(user, dto, request));
+        itemViewProjector.created(item);
+        trigramIndex.put(item);
+        nameSuggester.put(item);
+        if (request != null) {
+            itemRequestService.answered(List.of(request.getId()));
+        }
+        itemRequestService.publishMatches(item, Set.of());
+        return itemMapper.toDto(item);
     }
 
     public CommentDto createComment(CommentInputDto dto, Long itemId, Long userId) {
         var user = userService.get(userId);
         var item = get(itemId);
 
-        var bookings = bookingRepository.findAllByItemAndUser(itemId, userId);
+        var bookings = bookingHistoryRepository.findAllByItemAndUser(itemId, userId);
         if (bookings.size() == 0) {
             throw new ValidationException("У предмета не было бронирований");
         }
 
-        Booking oldestBooking = null;
-        for (Booking booking: bookings) {
+        BookingHistory oldestBooking = null;
+        for (BookingHistory booking: bookings) {
             if (!booking.getStatus().equals(BookingStatus.REJECTED)) {
                 oldestBooking = booking;
                 break;
@@ -163,16 +189,19 @@ public class ItemService {
         }
 
         var comment = commentMapper.toComment(dto, -1L, item, user, now);
-        return commentMapper.toDto(commentRepository.save(comment));
+        var result = commentMapper.toDto(commentRepository.save(comment));
+        itemViewProjector.refresh(itemId);
+        return result;
     }
 
     public ItemDto patch(ItemDto dto, Long id, Long userId) {
-        userService.get(userId);
+        userService.checkExists(userId);
         var item = get(id);
 
         if (!userId.equals(item.getOwner().getId())) {
             throw new NotFoundException("Пользователь не является владельцем");
         }
+        var matched = Boolean.TRUE.equals(item.getAvailable()) ? itemRequestService.getMatchingIds(item) : Set.<Long>of();
 
         if (dto.getName() != null && !dto.getName().isBlank()) {
             item.setName(dto.getName());
@@ -184,7 +213,12 @@ public class ItemService {
             item.setAvailable(dto.getAvailable());
         }
 
-        return itemMapper.toDto(itemRepository.save(item));
+        item = itemRepository.save(item);
+        itemViewProjector.refresh(id);
+        trigramIndex.put(item);
+        nameSuggester.put(item);
+        itemRequestService.publishMatches(item, matched);
+        return itemMapper.toDto(item);
     }
 
     public List<ItemDto> search(String text, Integer from, Integer size) {
@@ -194,37 +228,35 @@ public class ItemService {
         if (text.isBlank()) {
             return Collections.emptyList();
         }
+        if (searchMode == SearchMode.TRIGRAM) {
+            return trigramIndex.search(text, from / size * size, size);
+        }
         text = text.toLowerCase();
-        return itemRepository.findByText(text, PageRequest.of(from / size, size)).stream().map(itemMapper::toDto).collect(Collectors.toList());
+        var page = PageRequest.of(from / size, size);
+        List<Item> items;
+        if (searchMode == SearchMode.FULLTEXT) {
+            var query = toPrefixQuery(text);
+            if (query.isEmpty()) {
+                return Collections.emptyList();
+            }
+            items = itemRepository.findByFullText(query, page);
+        } else {
+            items = itemRepository.findByText(text, page);
+        }
+        return items.stream().map(itemMapper::toDto).collect(Collectors.toList());
     }
 
-    private List<CommentDto> getCommentsFromMap(Map<Item, List<Comment>> comments, Item item) {
-        return comments
-                .entrySet()
-                .stream()
-                .filter(x -> Objects.equals(x.getKey().getId(), item.getId()))
-                .findFirst()
-                .map(x -> x
-                        .getValue()
-                        .stream()
-                        .map(commentMapper::toDto)
-                        .collect(Collectors.toList()))
-                .orElseGet(ArrayList::new);
+    public List<String> suggest(String prefix, Integer limit) {
+        if (limit <= 0 || limit > nameSuggester.getMaxLimit()) {
+            throw new ValidationException("Переданы неверные параметры");
+        }
+        return nameSuggester.suggest(prefix, limit);
     }
 
-    private BookingInfoDto getBookingByItemFromMap(Map<Item, List<Booking>> bookings, Item item) {
-        var result = bookings
-                .entrySet()
-                .stream()
-                .filter(x -> Objects.equals(x.getKey().getId(), item.getId()))
-                .findFirst();
-
-        return result
-                .map(itemListEntry -> bookingMapper.toInfo(itemListEntry
-                        .getValue()
-                        .stream()
-                        .findFirst()
-                        .get()))
-                .orElse(null);
+    private String toPrefixQuery(String text) {
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
     }
 }
@@ -0,0 +1,340 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.enums.SearchMode;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over the name and description of available items, used by
+ * {@link ItemService#search} in {@link SearchMode#TRIGRAM} mode. Items are numbered with dense
+ * ordinals and every trigram maps to a sorted {@code int} array of them; a query intersects the
+ * lists of its own trigrams and checks the candidates for the substring, which gives the same
+ * matches as the {@code LIKE} query. Results are ordered by ordinal.
+ * Queries shorter than a trigram scan all indexed items.
+ * The index is rebuilt from the database every {@code shareit.item.search.trigram.refresh-interval},
+ * which picks up the items changed by other instances and numbers the items by id again, dropping the
+ * ordinals of removed items. Between rebuilds an item changed here keeps its ordinal and a new one is
+ * appended, so results are in id order, as with {@code LIKE}, except for items created concurrently
+ * here since the last rebuild, which are in the order they were indexed until the next one.
+ */
+@Slf4j
+@Component
+public class ItemTrigramIndex {
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Index index = new Index();
+    private Map<Long, ItemDto> changedDuringRebuild;
+
+    public ItemTrigramIndex(ItemRepository itemRepository,
+                            ItemMapper itemMapper,
+                            @Value("${shareit.item.search.mode}") SearchMode searchMode) {
+        this.itemRepository = itemRepository;
+        this.itemMapper = itemMapper;
+        this.enabled = searchMode == SearchMode.TRIGRAM;
+    }
+
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+
+    /**
+     * Builds a new index outside the lock and swaps it in. Items put or removed here meanwhile
+     * are applied to the new index before the swap, since it may have read them before the change.
+     */
+    @Scheduled(initialDelayString = "${shareit.item.search.trigram.refresh-interval}",
+            fixedDelayString = "${shareit.item.search.trigram.refresh-interval}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        var started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        var rebuilt = new Index();
+        var afterId = 0L;
+        while (true) {
+            var batch = itemRepository.findAvailableDtosAfter(afterId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            batch.forEach(rebuilt::put);
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild.forEach((id, item) -> {
+                if (item != null) {
+                    rebuilt.put(item);
+                } else {
+                    rebuilt.remove(id);
+                }
+            });
+            changedDuringRebuild = null;
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        var ids = rebuilt.postings.values().stream().mapToLong(list -> list.size).sum();
+        log.info("Trigram index built in {} ms: {} items, {} trigrams, {} postings",
+                System.currentTimeMillis() - started, rebuilt.ordinals.size(), rebuilt.postings.size(), ids);
+    }
+
+    public void put(Item item) {
+        if (!enabled) {
+            return;
+        }
+        var dto = itemMapper.toDto(item);
+        lock.writeLock().lock();
+        try {
+            index.put(dto);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(dto.getId(), dto);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index.remove(itemId);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(itemId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ItemDto> search(String text, int offset, int limit) {
+        var query = text.toLowerCase();
+        var result = new ArrayList<ItemDto>(limit);
+        lock.readLock().lock();
+        try {
+            var current = index;
+            var matches = new Matches(current.items, query, offset, limit, result);
+            if (query.length() < 3) {
+                for (int ordinal = 0; ordinal < current.nextOrdinal && matches.accept(ordinal); ordinal++) {
+                }
+            } else {
+                current.intersect(query, matches);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private static long trigram(String text, int position) {
+        return ((long) text.charAt(position) << 32) | ((long) text.charAt(position + 1) << 16) | text.charAt(position + 2);
+    }
+
+    private static boolean contains(String text, String query) {
+        return text != null && text.toLowerCase().contains(query);
+    }
+
+    /**
+     * Ordinals, postings and items of one build of the index, guarded by the index's lock once swapped in.
+     */
+    private static class Index {
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+        private ItemDto[] items = new ItemDto[1024];
+        private int nextOrdinal;
+
+        void put(ItemDto item) {
+            var ordinal = ordinals.get(item.getId());
+            if (ordinal != null) {
+                removeFromPostings(ordinal);
+            }
+            if (!Boolean.TRUE.equals(item.getAvailable())) {
+                return;
+            }
+            if (ordinal == null) {
+                ordinal = nextOrdinal++;
+                ordinals.put(item.getId(), ordinal);
+                if (ordinal == items.length) {
+                    items = Arrays.copyOf(items, ordinal * 2);
+                }
+            }
+            items[ordinal] = item;
+            addTrigrams(ordinal, item.getName());
+            addTrigrams(ordinal, item.getDescription());
+        }
+
+        void remove(Long itemId) {
+            var ordinal = ordinals.remove(itemId);
+            if (ordinal != null) {
+                removeFromPostings(ordinal);
+            }
+        }
+
+        /**
+         * Walks the shortest posting list of the query and looks each ordinal up in the others,
+         * which only move forward, stopping as soon as the requested page is filled.
+         */
+        void intersect(String query, Matches matches) {
+            var lists = new ArrayList<Postings>();
+            for (int i = 0; i + 3 <= query.length(); i++) {
+                var list = postings.get(trigram(query, i));
+                if (list == null) {
+                    return;
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            var positions = new int[lists.size()];
+            var shortest = lists.get(0);
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                var ordinal = shortest.ordinals[i];
+                for (int j = 1; j < lists.size(); j++) {
+                    var other = lists.get(j);
+                    positions[j] = other.lowerBound(positions[j], ordinal);
+                    if (positions[j] == other.size) {
+                        return;
+                    } else if (other.ordinals[positions[j]] != ordinal) {
+                        continue candidates;
+                    }
+                }
+                if (!matches.accept(ordinal)) {
+                    return;
+                }
+            }
+        }
+
+        private void addTrigrams(int ordinal, String text) {
+            if (text == null) {
+                return;
+            }
+            var lower = text.toLowerCase();
+            for (int i = 0; i + 3 <= lower.length(); i++) {
+                postings.computeIfAbsent(trigram(lower, i), key -> new Postings()).add(ordinal);
+            }
+        }
+
+        private void removeFromPostings(int ordinal) {
+            var item = items[ordinal];
+            if (item == null) {
+                return;
+            }
+            items[ordinal] = null;
+            for (String text : new String[]{item.getName(), item.getDescription()}) {
+                if (text == null) {
+                    continue;
+                }
+                var lower = text.toLowerCase();
+                for (int i = 0; i + 3 <= lower.length(); i++) {
+                    var key = trigram(lower, i);
+                    var list = postings.get(key);
+                    if (list != null && list.remove(ordinal) && list.size == 0) {
+                        postings.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Matches {
+        private final ItemDto[] items;
+        private final String query;
+        private final int limit;
+        private final List<ItemDto> result;
+        private int skip;
+
+        Matches(ItemDto[] items, String query, int offset, int limit, List<ItemDto> result) {
+            this.items = items;
+            this.query = query;
+            this.skip = offset;
+            this.limit = limit;
+            this.result = result;
+        }
+        boolean accept(int ordinal) {
+            var item = items[ordinal];
+            if (item != null && (contains(item.getName(), query) || contains(item.getDescription(), query))) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    result.add(item);
+                }
+            }
+            return result.size() < limit;
+        }
+    }
+
+    /**
+     * Sorted, growable array of item ordinals. Ordinals are handed out in increasing order,
+     * so adding is an append unless an updated item is re-indexed.
+     */
+    private static class Postings {
+        private int[] ordinals = new int[2];
+        private int size;
+
+        void add(int ordinal) {
+            var position = size > 0 && ordinals[size - 1] < ordinal ? size : lowerBound(0, ordinal);
+            if (position < size && ordinals[position] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ordinals, position, ordinals, position + 1, size - position);
+            ordinals[position] = ordinal;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            var position = lowerBound(0, ordinal);
+            if (position == size || ordinals[position] != ordinal) {
+                return false;
+            }
+            System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        int lowerBound(int from, int ordinal) {
+            int low = from;
+            int high = size;
+            while (low < high) {
+                var middle = (low + high) >>> 1;
+                if (ordinals[middle] < ordinal) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.ItemBookingsInfo;
+import ru.practicum.shareit.booking.repository.BookingJdbcRepository;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.dto.ItemCommentsInfo;
+import ru.practicum.shareit.item.repository.CommentJdbcRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemViewRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Maintains the {@code item_view} read model. Writes that change what an item card shows
+ * refresh the affected rows; bookings starting or ending over time are handled lazily
+ * by recomputing a row on read once its {@code validUntil} has passed.
+ * Refreshes and expiries lock the item rows, so neither a concurrent refresh of an item nor
+ * an expiry set while a refresh is running gets overwritten with an older state.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemViewProjector {
+    private static final TypeReference<List<CommentDto>> COMMENTS = new TypeReference<>() {
+    };
+
+    private final ItemViewRepository repository;
+    private final ItemRepository itemRepository;
+    private final CommentJdbcRepository commentJdbcRepository;
+    private final BookingJdbcRepository bookingJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${shareit.item.comments.latest-limit}")
+    private int latestCommentsLimit;
+
+    public ItemView get(Long itemId) {
+        var view = repository.findById(itemId)
+                .filter(found -> found.isValid(LocalDateTime.now()))
+                .orElseGet(() -> refresh(List.of(itemId)).get(itemId));
+        if (view == null) {
+            throw new NotFoundException("Предмет с таким id не существует");
+        }
+        return view;
+    }
+
+    public List<CommentDto> getComments(ItemView view) {
+        try {
+            return objectMapper.readValue(view.getComments(), COMMENTS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать комментарии предмета " + view.getItemId(), e);
+        }
+    }
+
+    public void created(Item item) {
+        repository.save(new ItemView(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getOwner().getId(), null, null, null, null, null, null, 0, "[]", null));
+    }
+
+    public void refresh(Long itemId) {
+        refresh(List.of(itemId));
+    }
+
+    public Map<Long, ItemView> refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return transactionTemplate.execute(status -> {
+            var items = itemRepository.lockAllByIdIn(itemIds);
+            if (items.isEmpty()) {
+                return Collections.<Long, ItemView>emptyMap();
+            }
+            var now = LocalDateTime.now();
+            var ids = items.stream().map(Item::getId).collect(toList());
+            var views = repository.findAllById(ids)
+                    .stream()
+                    .collect(Collectors.toMap(ItemView::getItemId, Function.identity()));
+            var comments = commentJdbcRepository.findLatest(ids, latestCommentsLimit);
+            var bookings = bookingJdbcRepository.findItemCardBookings(ids, now);
+            var changes = bookingJdbcRepository.findNextChanges(ids, now);
+
+            for (Item item : items) {
+                var view = views.computeIfAbsent(item.getId(), id -> new ItemView());
+                view.setItemId(item.getId());
+                view.setName(item.getName());
+                view.setDescription(item.getDescription());
+                view.setAvailable(item.getAvailable());
+                view.setOwnerId(item.getOwner().getId());
+                setBookings(view, bookings.getOrDefault(item.getId(), new ItemBookingsInfo()));
+                setComments(view, comments.getOrDefault(item.getId(), new ItemCommentsInfo()));
+                view.setValidUntil(changes.get(item.getId()));
+            }
+            repository.saveAll(views.values());
+            return views;
+        });
+    }
+
+    /**
+     * Called after a booking is created. A new booking never changes the summaries immediately,
+     * because it starts in the future and waits for approval, so only the expiry moves.
+     * The item row is locked like in {@link #refresh(Collection)}: a refresh that read the
+     * bookings before this one was committed would otherwise save its later expiry over it.
+     */
+    public void bookingAdded(Long itemId, LocalDateTime start) {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemRepository.lockAllByIdIn(List.of(itemId));
+            repository.expireNotLaterThan(itemId, start);
+        });
+    }
+
+    public void authorRenamed(Long authorId) {
+        repository.expireCommentedBy(authorId, LocalDateTime.now());
+    }
+
+    private void setBookings(ItemView view, ItemBookingsInfo info) {
+        var current = info.getCurrent();
+        view.setCurrentBookingId(current != null ? current.getId() : null);
+        view.setCurrentBookerId(current != null ? current.getBookerId() : null);
+        var next = info.getNext();
+        view.setNextBookingId(next != null ? next.getId() : null);
+        view.setNextBookerId(next != null ? next.getBookerId() : null);
+        var last = info.getLast();
+        view.setLastBookingId(last != null ? last.getId() : null);
+        view.setLastBookerId(last != null ? last.getBookerId() : null);
+    }
+
+    private void setComments(ItemView view, ItemCommentsInfo comments) {
+        try {
+            view.setComments(objectMapper.writeValueAsString(comments.getLatest()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить комментарии предмета " + view.getItemId(), e);
+        }
+        view.setCommentCount(comments.getCount());
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.shareit.Config;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private final List<T> content;
+    private final Cursor next;
+
+    public ResponseEntity<List<T>> toResponse() {
+        var response = ResponseEntity.ok();
+        if (next != null) {
+            response.header(Config.nextCursorHeaderName, next.encode());
+        }
+        return response.body(content);
+    }
+}
@@ -6,6 +6,9 @@ import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.Config;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -20,8 +23,8 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public List<ItemRequestDto> getAllByUser(@RequestHeader(Config.userHeaderName) Long userId) {
-        return service.getAllByUser(userId);
+    public List<ItemRequestDto> getAllByUser(@RequestParam(defaultValue = "0") Integer from, @RequestParam(required = false) Integer size, @RequestHeader(Config.userHeaderName) Long userId) {
+        return service.getAllByUser(from, size, userId);
     }
 
     @GetMapping("all")
@@ -29,6 +32,12 @@ public class ItemRequestController {
         return service.getAllByPage(from, size, userId);
     }
 
+    @GetMapping("stream")
+    public void streamMatches(@RequestHeader(Config.userHeaderName) Long userId,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        service.subscribe(userId, request, response);
+    }
+
     @GetMapping("{id}")
     public ItemRequestDto get(@PathVariable Long id, @RequestHeader(Config.userHeaderName) Long userId) {
         return service.getDto(id, userId);
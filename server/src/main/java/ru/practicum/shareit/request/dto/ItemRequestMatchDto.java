@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+@Data
+@AllArgsConstructor
+public class ItemRequestMatchDto {
+    private Long requestId;
+    private ItemDto item;
+}
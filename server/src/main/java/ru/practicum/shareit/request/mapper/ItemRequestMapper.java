@@ -2,6 +2,7 @@ package ru.practicum.shareit.request.mapper;
 
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
@@ -9,6 +10,8 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -25,6 +28,14 @@ public class ItemRequestMapper {
                 request.getItems().stream().map(itemMapper::toDto).collect(Collectors.toSet()));
     }
 
+    public ItemRequestDto toDto(ItemRequest request, Collection<ItemDto> items) {
+        return new ItemRequestDto(
+                request.getId(),
+                request.getDescription(),
+                request.getCreated(),
+                new HashSet<>(items));
+    }
+
     public ItemRequest toRequest(ItemRequestDto dto, Long id, User requestor, LocalDateTime created, Set<Item> items) {
         return new ItemRequest(
                 id,
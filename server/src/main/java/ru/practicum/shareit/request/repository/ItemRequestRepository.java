@@ -1,14 +1,30 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    List<ItemRequest> findAllByRequestor_idOrderByCreatedDesc(Long requestorId);
+    List<ItemRequest> findAllByRequestor_idOrderByCreatedDesc(Long requestorId, Pageable pageable);
 
-    Page<ItemRequest> findAllByRequestor_idNotOrderByCreatedDesc(Long requestorId, PageRequest pageable);
+    List<ItemRequest> findAllByRequestor_idNotOrderByCreatedDesc(Long requestorId, Pageable pageable);
+
+    @Query("SELECT r FROM ItemRequest r WHERE r.id > :afterId "
+            + "AND NOT EXISTS (SELECT i.id FROM Item i WHERE i.request = r) ORDER BY r.id")
+    List<ItemRequest> findOpenAfter(Long afterId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(i.id), 0) FROM Item i")
+    long findLastItemId();
+
+    @Query("SELECT DISTINCT i.request.id FROM Item i "
+            + "WHERE i.id > :afterItemId AND i.id <= :upToItemId AND i.request IS NOT NULL")
+    List<Long> findAnsweredByItemsBetween(long afterItemId, long upToItemId);
+
+    @Query("SELECT r.id FROM ItemRequest r WHERE r.id IN :ids")
+    Set<Long> findExistingIds(Collection<Long> ids);
 }
@@ -0,0 +1,216 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reverse search over open item requests, i.e. requests no item has answered yet.
+ * Descriptions are split into tokens cut to {@code shareit.request.matching.stem-length}
+ * characters, which is enough to match most word forms. An item matches a request when its
+ * name and description share at least {@code min-overlap} of the request's tokens.
+ * A request of {@code n} tokens needing {@code k} of them is indexed under only its
+ * {@code n - k + 1} rarest tokens: any item sharing {@code k} tokens has to contain one of
+ * them, so a lookup reads the short posting lists of the item's tokens instead of every request.
+ * Requests are not re-opened when the items answering them are deleted.
+ * Every instance keeps an index of its own. Besides the changes made through it, each one reads
+ * the requests created and answered elsewhere every {@code refresh-interval}. A refresh reads again
+ * everything above the highest request and item ids seen by the refresh before it, so a row committed
+ * after a higher id was already read is still picked up, unless its transaction was open for longer
+ * than a whole interval.
+ */
+@Slf4j
+@Component
+public class ItemRequestMatcher {
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final int MIN_TOKEN_LENGTH = 3;
+
+    private final ItemRequestRepository repository;
+    private final double minOverlap;
+    private final int stemLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, OpenRequest> requests = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<String, Integer> frequencies = new HashMap<>();
+    private long lastRequestId;
+    private long previousRequestId;
+    private long lastItemId;
+    private long previousItemId;
+
+    public ItemRequestMatcher(ItemRequestRepository repository,
+                              @Value("${shareit.request.matching.min-overlap}") double minOverlap,
+                              @Value("${shareit.request.matching.stem-length}") int stemLength) {
+        this.repository = repository;
+        this.minOverlap = minOverlap;
+        this.stemLength = stemLength;
+    }
+
+    @PostConstruct
+    public void load() {
+        var started = System.currentTimeMillis();
+        synchronized (this) {
+            lastItemId = repository.findLastItemId();
+            previousItemId = lastItemId;
+        }
+        refresh();
+        log.info("Request matcher built in {} ms: {} open requests, {} indexed tokens",
+                System.currentTimeMillis() - started, requests.size(), postings.size());
+    }
+
+    /**
+     * Indexes the open requests created since the refresh before the last one and drops the requests
+     * answered by items created since then. Requests read again are simply indexed anew. The last item
+     * id is read first, so an item committed while the requests are read is handled by the next refresh.
+     */
+    @Scheduled(initialDelayString = "${shareit.request.matching.refresh-interval}",
+            fixedDelayString = "${shareit.request.matching.refresh-interval}")
+    public synchronized void refresh() {
+        var upToItemId = repository.findLastItemId();
+        var afterRequestId = previousRequestId;
+        var upToRequestId = lastRequestId;
+        while (true) {
+            var batch = repository.findOpenAfter(afterRequestId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            batch.forEach(this::put);
+            afterRequestId = batch.get(batch.size() - 1).getId();
+            upToRequestId = Math.max(upToRequestId, afterRequestId);
+        }
+        repository.findAnsweredByItemsBetween(previousItemId, upToItemId).forEach(this::remove);
+        previousRequestId = lastRequestId;
+        lastRequestId = upToRequestId;
+        previousItemId = lastItemId;
+        lastItemId = upToItemId;
+    }
+
+    public void put(ItemRequest request) {
+        var tokens = new ArrayList<>(tokenize(request.getDescription()));
+        if (tokens.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(request.getId());
+            tokens.sort(Comparator.<String>comparingInt(token -> frequencies.getOrDefault(token, 0))
+                    .thenComparing(Comparator.naturalOrder()));
+            var required = Math.max(1, (int) Math.ceil(tokens.size() * minOverlap));
+            var indexed = tokens.subList(0, tokens.size() - required + 1).toArray(String[]::new);
+            for (String token : indexed) {
+                postings.computeIfAbsent(token, key -> new HashSet<>()).add(request.getId());
+            }
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            var requestorId = request.getRequestor().getId();
+            requests.put(request.getId(), new OpenRequest(requestorId, new HashSet<>(tokens), indexed, required));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long requestId) {
+        lock.writeLock().lock();
+        try {
+            var request = requests.remove(requestId);
+            if (request == null) {
+                return;
+            }
+            for (String token : request.indexed) {
+                var ids = postings.get(token);
+                if (ids != null && ids.remove(requestId) && ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+            for (String token : request.tokens) {
+                frequencies.computeIfPresent(token, (key, count) -> count > 1 ? count - 1 : null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the open requests of other users matching the text, best overlap first.
+     */
+    public List<Match> match(String name, String description, Long ownerId) {
+        var tokens = tokenize(name);
+        tokens.addAll(tokenize(description));
+        var result = new ArrayList<Match>();
+        lock.readLock().lock();
+        try {
+            var seen = new HashSet<Long>();
+            for (String token : tokens) {
+                for (Long id : postings.getOrDefault(token, Set.of())) {
+                    if (!seen.add(id)) {
+                        continue;
+                    }
+                    var request = requests.get(id);
+                    if (request.requestorId.equals(ownerId)) {
+                        continue;
+                    }
+                    var overlap = 0;
+                    for (String requestToken : request.tokens) {
+                        if (tokens.contains(requestToken)) {
+                            overlap++;
+                        }
+                    }
+                    if (overlap >= request.required) {
+                        result.add(new Match(id, request.requestorId, (double) overlap / request.tokens.size()));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparingDouble(Match::getScore).reversed().thenComparing(Match::getRequestId));
+        return result;
+    }
+
+    private Set<String> tokenize(String text) {
+        var tokens = new LinkedHashSet<String>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String word : text.toLowerCase().replace('ё', 'е').split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() >= MIN_TOKEN_LENGTH) {
+                tokens.add(word.length() > stemLength ? word.substring(0, stemLength) : word);
+            }
+        }
+        return tokens;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Match {
+        private final Long requestId;
+        private final Long requestorId;
+        private final double score;
+    }
+
+    @AllArgsConstructor
+    private static class OpenRequest {
+        private final Long requestorId;
+        private final Set<String> tokens;
+        private final String[] indexed;
+        private final int required;
+    }
+}
@@ -1,49 +1,134 @@
 package ru.practicum.shareit.request.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.event.EventBus;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestMatchDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemRequestService {
+    private static final String MATCHES_TOPIC = "requests";
+    private static final String MATCH_EVENT = "ITEM_MATCHED";
+
     private final ItemRequestRepository repository;
     private final UserService userService;
     private final ItemRequestMapper mapper;
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+    private final ItemRequestMatcher matcher;
+    private final EventBus eventBus;
+
+    @Value("${shareit.request.matching.notify}")
+    private boolean notifyMatches;
 
     public ItemRequest get(Long id) {
         return repository.findById(id).orElseThrow(() -> new NotFoundException("Запрос с таким id не существует"));
     }
 
     public ItemRequestDto getDto(Long id, Long userId) {
-        userService.get(userId);
-        return mapper.toDto(get(id));
+        userService.checkExists(userId);
+        return toDtos(List.of(get(id))).get(0);
     }
 
     public ItemRequestDto create(ItemRequestDto inputDto, Long userId) {
         var user = userService.get(userId);
         var request = mapper.toRequest(inputDto, -1L, user, LocalDateTime.now(), new HashSet<>());
-        return mapper.toDto(repository.save(request));
+        request = repository.save(request);
+        matcher.put(request);
+        return mapper.toDto(request);
+    }
+
+    public void answered(Collection<Long> ids) {
+        ids.forEach(matcher::remove);
+    }
+
+    public Set<Long> getMatchingIds(Item item) {
+        return matcher.match(item.getName(), item.getDescription(), item.getOwner().getId()).stream()
+                .map(ItemRequestMatcher.Match::getRequestId)
+                .collect(Collectors.toSet());
+    }
+
+    public List<ItemRequestDto> getMatching(Item item) {
+        var ids = matcher.match(item.getName(), item.getDescription(), item.getOwner().getId()).stream()
+                .map(ItemRequestMatcher.Match::getRequestId)
+                .collect(Collectors.toList());
+        var requests = repository.findAllById(ids).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        return toDtos(ids.stream().map(requests::get).filter(Objects::nonNull).collect(Collectors.toList()));
+    }
+
+    /**
+     * Tells the authors of the open requests matching an available item about it,
+     * skipping the requests in {@code notified}.
+     */
+    public void publishMatches(Item item, Set<Long> notified) {
+        if (!notifyMatches || !Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        for (ItemRequestMatcher.Match match : matcher.match(item.getName(), item.getDescription(), item.getOwner().getId())) {
+            if (!notified.contains(match.getRequestId()) && eventBus.hasSubscribers(MATCHES_TOPIC, match.getRequestorId())) {
+                var event = new ItemRequestMatchDto(match.getRequestId(), itemMapper.toDto(item));
+                eventBus.publish(MATCHES_TOPIC, match.getRequestorId(), MATCH_EVENT, event);
+            }
+        }
     }
 
-    public List<ItemRequestDto> getAllByUser(Long userId) {
-        userService.get(userId);
-        return repository.findAllByRequestor_idOrderByCreatedDesc(userId).stream().map(mapper::toDto).collect(Collectors.toList());
+    public void subscribe(Long userId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        userService.checkExists(userId);
+        eventBus.subscribe(MATCHES_TOPIC, userId, request, response);
+    }
+
+    public List<ItemRequestDto> getAllByUser(int from, Integer size, Long userId) {
+        userService.checkExists(userId);
+        var page = size != null ? PageRequest.of(from / size, size) : Pageable.unpaged();
+        return toDtos(repository.findAllByRequestor_idOrderByCreatedDesc(userId, page));
     }
 
     public List<ItemRequestDto> getAllByPage(int from, int size, Long userId) {
-        userService.get(userId);
-        return repository.findAllByRequestor_idNotOrderByCreatedDesc(userId, PageRequest.of(from / size, size)).stream().map(mapper::toDto).collect(Collectors.toList());
+        userService.checkExists(userId);
+        return toDtos(repository.findAllByRequestor_idNotOrderByCreatedDesc(userId, PageRequest.of(from / size, size)));
+    }
+
+    /**
+     * Loads the items answering all the given requests with one query instead of
+     * initializing {@link ItemRequest#getItems()} for every request.
+     */
+    private List<ItemRequestDto> toDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        var ids = requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
+        Map<Long, List<ItemDto>> items = itemRepository.findDtosByRequestIdIn(ids).stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
+        return requests.stream()
+                .map(request -> mapper.toDto(request, items.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
     }
 }
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -19,9 +22,15 @@ public class UserController {
         return service.getDto(id);
     }
 
+    @GetMapping(params = "size")
+    public ResponseEntity<List<UserDto>> getPage(@RequestParam Integer size, @RequestParam(required = false) String cursor) {
+        return service.getPage(size, cursor).toResponse();
+    }
+
     @GetMapping
-    public List<UserDto> getAll() {
-        return service.getAll();
+    public ResponseEntity<StreamingResponseBody> getAll(@RequestParam(required = false) String cursor) {
+        var body = service.streamAll(cursor);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @DeleteMapping("{id}")
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class UserJdbcRepository {
+    private static final String SELECT_AFTER = "SELECT id, name, email FROM users WHERE id > ? ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Passes every user with an id greater than {@code afterId} to {@code consumer} while reading
+     * a forward-only cursor {@code fetchSize} rows at a time. PostgreSQL only honours the fetch size inside a transaction.
+     */
+    public void streamAfter(long afterId, int fetchSize, Consumer<UserDto> consumer) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(SELECT_AFTER, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, afterId);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(new UserDto(rs.getLong("id"), rs.getString("name"), rs.getString("email"))));
+    }
+}
@@ -0,0 +1,224 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tells whether a user id exists, mostly without touching the database. Ids found in the database
+ * are kept in a bounded LRU, and a Bloom filter of the id column, rebuilt every {@code refresh-interval},
+ * rejects most of the others. A Bloom miss is trusted for ids up to the highest one read by the rebuild
+ * before the last: such an id was taken a whole interval before the last rebuild read the column, so
+ * it is missing from it only if its user is gone or its transaction has been open all that time.
+ * Ids above the highest id in the database are rejected as well, that maximum being read again once it
+ * is older than {@code max-id-ttl}, so a user created by another instance may be reported as missing
+ * for that long at most. The remaining Bloom misses, ids taken elsewhere since the previous rebuild,
+ * are checked in the database. A rebuild forgets removed users and drops from the LRU the users removed
+ * elsewhere. The filter is sized for {@code max(expected-users, 2 * current users)} ids; beyond that its
+ * false positive rate grows, which costs database lookups but never wrong answers.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserExistenceFilter {
+    private final UserRepository repository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${shareit.user.existence.expected-users}")
+    private long expectedUsers;
+
+    @Value("${shareit.user.existence.false-positive-rate}")
+    private double falsePositiveRate;
+
+    @Value("${shareit.user.existence.cache-size}")
+    private int cacheSize;
+
+    @Value("${shareit.user.existence.max-id-ttl}")
+    private Duration maxIdTtl;
+
+    private volatile BloomFilter bloomFilter;
+    private Map<Long, Boolean> confirmed;
+    private long removals;
+    private List<Long> addedDuringRebuild;
+    private long rebuiltUpTo;
+    private volatile long trustedUpTo;
+    private volatile long maxId;
+    private volatile long maxIdReadAt;
+
+    @PostConstruct
+    public void load() {
+        var started = System.currentTimeMillis();
+        confirmed = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        refresh();
+        log.info("User existence filter loaded in {} ms", System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Builds a new filter from the id column and swaps it in. Ids confirmed here while the column
+     * is read are added to the new filter before the swap, since the read may have missed them.
+     */
+    @Scheduled(initialDelayString = "${shareit.user.existence.refresh-interval}",
+            fixedDelayString = "${shareit.user.existence.refresh-interval}")
+    public synchronized void refresh() {
+        var filter = new BloomFilter(Math.max(expectedUsers, 2 * repository.count()), falsePositiveRate);
+        synchronized (confirmed) {
+            addedDuringRebuild = new ArrayList<>();
+        }
+        var readAt = System.nanoTime();
+        long highest = transactionTemplate.execute(status -> {
+            try (var ids = repository.streamAllIds()) {
+                return ids.peek(filter::put).mapToLong(Long::longValue).max().orElse(0L);
+            }
+        });
+        synchronized (confirmed) {
+            addedDuringRebuild.forEach(filter::put);
+            addedDuringRebuild = null;
+            confirmed.keySet().removeIf(id -> !filter.mightContain(id));
+            bloomFilter = filter;
+            maxId = Math.max(maxId, highest);
+            maxIdReadAt = readAt;
+        }
+        trustedUpTo = rebuiltUpTo;
+        rebuiltUpTo = highest;
+    }
+
+    /**
+     * Checks the id in the LRU, then in the filter and the id bounds, and otherwise in the database.
+     * A user removed while the database is queried may still be reported as existing by this call,
+     * but is not cached: every removal bumps {@code removals}, and the result is only cached when no
+     * removal happened during the query.
+     */
+    public boolean exists(Long id) {
+        long removalsBefore;
+        synchronized (confirmed) {
+            if (confirmed.get(id) != null) {
+                return true;
+            }
+            removalsBefore = removals;
+        }
+        if (!bloomFilter.mightContain(id) && (id <= trustedUpTo || id > maxId())) {
+            return false;
+        }
+        if (!repository.existsById(id)) {
+            return false;
+        }
+        synchronized (confirmed) {
+            remember(id);
+            if (removals == removalsBefore) {
+                confirmed.put(id, Boolean.TRUE);
+            }
+        }
+        return true;
+    }
+
+    public void added(Long id) {
+        synchronized (confirmed) {
+            remember(id);
+            confirmed.put(id, Boolean.TRUE);
+        }
+    }
+
+    public void removed(Long id) {
+        synchronized (confirmed) {
+            confirmed.remove(id);
+            removals++;
+        }
+    }
+
+    /**
+     * Called while holding the LRU's monitor, so a rebuild either sees the id or has not started yet.
+     */
+    private void remember(Long id) {
+        bloomFilter.put(id);
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(id);
+        }
+        maxId = Math.max(maxId, id);
+    }
+
+    private long maxId() {
+        if (System.nanoTime() - maxIdReadAt > maxIdTtl.toNanos()) {
+            var readAt = System.nanoTime();
+            var stored = repository.findMaxId();
+            synchronized (confirmed) {
+                maxId = Math.max(maxId, stored);
+                maxIdReadAt = readAt;
+            }
+        }
+        return maxId;
+    }
+
+    /**
+     * Lock-free Bloom filter of longs using double hashing over one 64-bit mix of the value.
+     */
+    private static class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+
+        BloomFilter(long expected, double falsePositiveRate) {
+            var size = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            words = new AtomicLongArray((int) ((size + 63) / 64));
+            bits = words.length() * 64L;
+            hashes = Math.max(1, (int) Math.round((double) bits / expected * Math.log(2)));
+        }
+
+        void put(long value) {
+            var hash = mix(value);
+            var first = (int) hash;
+            var second = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                var bit = index(first + (long) i * second);
+                var mask = 1L << bit;
+                var word = (int) (bit >>> 6);
+                long current;
+                do {
+                    current = words.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(long value) {
+            var hash = mix(value);
+            var first = (int) hash;
+            var second = (int) (hash >>> 32);
+            for (int i = 1; i <= hashes; i++) {
+                var bit = index(first + (long) i * second);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long index(long combined) {
+            return Math.floorMod(combined, bits);
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return value ^ (value >>> 31);
+        }
+    }
+}
@@ -1,15 +1,26 @@
 package ru.practicum.shareit.user.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.service.ItemViewProjector;
+import ru.practicum.shareit.pagination.Cursor;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserJdbcRepository;
 import ru.practicum.shareit.user.repository.UserRepository;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 @Service
 @RequiredArgsConstructor
@@ -17,38 +28,100 @@ public class UserService {
 
     private final UserRepository repository;
     private final UserMapper mapper;
+    private final ItemViewProjector itemViewProjector;
+    private final UserExistenceFilter existenceFilter;
+    private final UserJdbcRepository jdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${shareit.user.stream.fetch-size}")
+    private int fetchSize;
 
     public User get(Long id) {
         return repository.findById(id).orElseThrow(() -> new NotFoundException("Пользователь с таким id не найден"));
     }
 
+    /**
+     * Checks that the user exists when the caller does not need the user itself.
+     */
+    public void checkExists(Long id) {
+        if (!existenceFilter.exists(id)) {
+            throw new NotFoundException("Пользователь с таким id не найден");
+        }
+    }
+
     public UserDto getDto(Long id) {
-        return mapper.toDto(repository.findById(id).orElseThrow(() -> new NotFoundException("Пользователь с таким id не найден")));
+        return mapper.toDto(get(id));
     }
 
-    public List<UserDto> getAll() {
-        return repository.findAll().stream().map(mapper::toDto).collect(Collectors.toList());
+    public CursorPage<UserDto> getPage(Integer size, String cursor) {
+        if (size <= 0) {
+            throw new ValidationException("Переданы неверные параметры");
+        }
+        var users = repository.findPageAfter(afterId(cursor), PageRequest.of(0, size + 1));
+        Cursor next = null;
+        if (users.size() > size) {
+            users = users.subList(0, size);
+            next = new Cursor(null, users.get(size - 1).getId());
+        }
+        return new CursorPage<>(users, next);
+    }
+
+    /**
+     * Writes all users after the cursor as one JSON array while reading them from a database cursor,
+     * so neither the table nor the response is held in memory.
+     */
+    public StreamingResponseBody streamAll(String cursor) {
+        var afterId = afterId(cursor);
+        return output -> {
+            try (var generator = objectMapper.createGenerator(output)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                var transaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+                transaction.setReadOnly(true);
+                transaction.executeWithoutResult(status -> jdbcRepository.streamAfter(afterId, fetchSize, user -> {
+                    try {
+                        generator.writeObject(user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+                generator.writeEndArray();
+            }
+        };
     }
 
     public void remove(Long id) {
         repository.delete(get(id));
+        existenceFilter.removed(id);
     }
 
     public UserDto create(UserDto dto) {
-        var user = mapper.toUser(dto);
-        return mapper.toDto(repository.save(user));
+        var user = repository.save(mapper.toUser(dto));
+        existenceFilter.added(user.getId());
+        return mapper.toDto(user);
     }
 
     public UserDto patch(UserDto dto) {
         var user = get(dto.getId());
+        var renamed = false;
 
         if (dto.getName() != null && !dto.getName().isBlank()) {
+            renamed = !dto.getName().equals(user.getName());
             user.setName(dto.getName());
         }
         if (dto.getEmail() != null && !user.getEmail().isBlank()) {
             user.setEmail(dto.getEmail());
         }
 
-        return mapper.toDto(repository.save(user));
+        var result = mapper.toDto(repository.save(user));
+        if (renamed) {
+            itemViewProjector.authorRenamed(user.getId());
+        }
+        return result;
+    }
+
+    private long afterId(String cursor) {
+        return cursor != null ? Cursor.decode(cursor).getId() : 0L;
     }
 }
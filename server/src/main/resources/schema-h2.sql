@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS booking_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP,
+    end_date TIMESTAMP NOT NULL,
+    item_id BIGINT REFERENCES item (id) NOT NULL,
+    booker_id BIGINT REFERENCES users (id) NOT NULL,
+    review VARCHAR(1024),
+    status VARCHAR(255) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_booking_archive PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS ix_booking_archive_item_start ON booking_archive (item_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_booking_archive_booker_start ON booking_archive (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_booking_archive_booker_end ON booking_archive (booker_id, end_date);
+CREATE VIEW booking_history AS
+    SELECT id, start_date, end_date, item_id, booker_id, status FROM booking
+    UNION ALL
+    SELECT id, start_date, end_date, item_id, booker_id, status FROM booking_archive;
@@ -0,0 +1,25 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+ALTER TABLE booking ADD CONSTRAINT ex_booking_item_period
+    EXCLUDE USING gist (item_id WITH =, tsrange(start_date, end_date) WITH &&)
+    WHERE (status IN ('WAITING', 'APPROVED'));
+CREATE TABLE IF NOT EXISTS booking_archive (
+    id BIGINT NOT NULL,
+    start_date TIMESTAMP,
+    end_date TIMESTAMP NOT NULL,
+    item_id BIGINT REFERENCES item (id) NOT NULL,
+    booker_id BIGINT REFERENCES users (id) NOT NULL,
+    review VARCHAR(1024),
+    status VARCHAR(255) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_booking_archive PRIMARY KEY (id, end_date)
+) PARTITION BY RANGE (end_date);
+CREATE INDEX IF NOT EXISTS ix_booking_archive_item_start ON booking_archive (item_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_booking_archive_booker_start ON booking_archive (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_booking_archive_booker_end ON booking_archive (booker_id, end_date);
+CREATE VIEW booking_history AS
+    SELECT id, start_date, end_date, item_id, booker_id, status FROM booking
+    UNION ALL
+    SELECT id, start_date, end_date, item_id, booker_id, status FROM booking_archive;
+ALTER TABLE item ADD COLUMN search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', name || ' ' || description)) STORED;
+CREATE INDEX IF NOT EXISTS ix_item_search_vector ON item USING gin (search_vector);
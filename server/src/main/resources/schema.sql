@@ -1,4 +1,7 @@
+DROP VIEW IF EXISTS booking_history;
+DROP TABLE IF EXISTS booking_archive;
 DROP TABLE IF EXISTS booking;
+DROP TABLE IF EXISTS item_view;
 DROP TABLE IF EXISTS comments;
 DROP TABLE IF EXISTS item;
 DROP TABLE IF EXISTS item_request;
@@ -34,6 +37,7 @@ CREATE TABLE IF NOT EXISTS booking (
     booker_id BIGINT REFERENCES users (id) NOT NULL,
     review VARCHAR(1024),
     status VARCHAR(255) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
     CONSTRAINT pk_booking PRIMARY KEY (id)
 );
 CREATE TABLE IF NOT EXISTS comments (
@@ -43,4 +47,33 @@ CREATE TABLE IF NOT EXISTS comments (
     author_id BIGINT REFERENCES users (id) NOT NULL,
     created TIMESTAMP NOT NULL,
     CONSTRAINT pk_comment PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+CREATE TABLE IF NOT EXISTS item_view (
+    item_id BIGINT REFERENCES item (id) ON DELETE CASCADE NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(512) NOT NULL,
+    available BOOLEAN NOT NULL,
+    owner_id BIGINT NOT NULL,
+    current_booking_id BIGINT,
+    current_booker_id BIGINT,
+    next_booking_id BIGINT,
+    next_booker_id BIGINT,
+    last_booking_id BIGINT,
+    last_booker_id BIGINT,
+    comment_count INTEGER NOT NULL,
+    comments TEXT NOT NULL,
+    valid_until TIMESTAMP,
+    CONSTRAINT pk_item_view PRIMARY KEY (item_id)
+);
+CREATE INDEX IF NOT EXISTS ix_item_owner ON item (owner_id, id);
+CREATE INDEX IF NOT EXISTS ix_item_request ON item (item_request_id);
+CREATE INDEX IF NOT EXISTS ix_booking_item_start ON booking (item_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_booking_item_end ON booking (item_id, end_date);
+CREATE INDEX IF NOT EXISTS ix_booking_booker_start ON booking (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_booking_booker_end ON booking (booker_id, end_date);
+CREATE INDEX IF NOT EXISTS ix_booking_booker_status ON booking (booker_id, status);
+CREATE INDEX IF NOT EXISTS ix_booking_end ON booking (end_date);
+CREATE INDEX IF NOT EXISTS ix_booking_item_status ON booking (item_id, status);
+CREATE INDEX IF NOT EXISTS ix_comments_item_created ON comments (item_id, created, id);
+CREATE INDEX IF NOT EXISTS ix_item_request_requestor_created ON item_request (requestor_id, created);
+CREATE INDEX IF NOT EXISTS ix_item_request_created ON item_request (created);
@@ -0,0 +1,118 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.support.QueryCounter;
+import ru.practicum.shareit.support.RecordingStatementInspector;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards the lazy associations against N+1 selects: the booking lists, item cards and request
+ * lists must prepare the same number of statements however many rows they return.
+ */
+@SpringBootTest(properties = RecordingStatementInspector.PROPERTY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LazyLoadingQueryCountTest {
+    private static final int ROWS = 10;
+    private static final int REQUESTS = 50;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long requestorId;
+    private Long firstItemId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserDto(null, "owner", "lazy-owner@test.ru")).getId();
+        bookerId = userService.create(new UserDto(null, "booker", "lazy-booker@test.ru")).getId();
+        requestorId = userService.create(new UserDto(null, "requestor", "lazy-requestor@test.ru")).getId();
+
+        var bookings = new ArrayList<BookingInputDto>();
+        var start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < REQUESTS; i++) {
+            var request = itemRequestService.create(new ItemRequestDto(null, "Нужна вещь " + i, null, null), requestorId);
+            var item = itemService.create(new ItemDto(null, "Вещь " + i, "Описание " + i, true, request.getId()), ownerId);
+            if (firstItemId == null) {
+                firstItemId = item.getId();
+            }
+            if (i >= ROWS) {
+                continue;
+            }
+            bookings.add(new BookingInputDto(start.plusDays(i), start.plusDays(i).plusHours(1), item.getId()));
+            bookings.add(new BookingInputDto(start.plusDays(i).plusHours(2), start.plusDays(i).plusHours(3), item.getId()));
+        }
+        bookingService.createAll(bookings, bookerId);
+    }
+
+    @Test
+    void bookingListsUseOneStatementPerPage() {
+        for (State state : new State[]{State.ALL, State.FUTURE, State.WAITING}) {
+            assertEquals(1, count(() -> bookingService.getBookingsByOwnerAndState(state, ownerId, 0, 1, null)), state::name);
+            assertEquals(1, count(() -> bookingService.getBookingsByOwnerAndState(state, ownerId, 0, 2 * ROWS, null)), state::name);
+            assertEquals(1, count(() -> bookingService.getBookingsByBookerAndState(state, bookerId, 0, 1, null)), state::name);
+            assertEquals(1, count(() -> bookingService.getBookingsByBookerAndState(state, bookerId, 0, 2 * ROWS, null)), state::name);
+        }
+    }
+
+    @Test
+    void itemCardIsReadFromItsView() {
+        itemService.getWithBookings(firstItemId, ownerId);
+        assertEquals(1, count(() -> itemService.getWithBookings(firstItemId, ownerId)));
+        assertEquals(1, count(() -> itemService.getWithBookings(firstItemId, bookerId)));
+    }
+
+    @Test
+    void ownerItemPageDoesNotLoadItemsOneByOne() {
+        var one = count(() -> itemService.getAllWithBookings(0, 1, ownerId));
+        var all = count(() -> itemService.getAllWithBookings(0, ROWS, ownerId));
+        assertEquals(one, all);
+    }
+
+    @Test
+    void requestListLoadsAnsweringItemsAtOnce() {
+        itemRequestService.getAllByUser(0, 1, requestorId);
+        itemRequestService.getAllByPage(0, 1, ownerId);
+        assertEquals(2, count(() -> itemRequestService.getAllByUser(0, null, requestorId)));
+        assertEquals(2, count(() -> itemRequestService.getAllByUser(0, 1, requestorId)));
+        assertEquals(2, count(() -> itemRequestService.getAllByUser(0, REQUESTS, requestorId)));
+        assertEquals(2, count(() -> itemRequestService.getAllByPage(0, 1, ownerId)));
+        assertEquals(2, count(() -> itemRequestService.getAllByPage(0, REQUESTS, ownerId)));
+
+        var requests = itemRequestService.getAllByUser(0, REQUESTS, requestorId);
+        assertEquals(REQUESTS, requests.size());
+        requests.forEach(request -> assertEquals(1, request.getItems().size()));
+        assertEquals(REQUESTS, itemRequestService.getAllByPage(0, REQUESTS, ownerId).size());
+    }
+
+    private long count(Runnable action) {
+        return QueryCounter.count(action);
+    }
+}
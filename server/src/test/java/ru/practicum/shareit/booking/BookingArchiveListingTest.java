@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.service.BookingArchiver;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bookings moved to {@code booking_archive} stay visible in the listings that can contain old bookings.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingArchiveListingTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingArchiver archiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long bookingId;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserDto(null, "owner", "archive-owner@test.ru")).getId();
+        bookerId = userService.create(new UserDto(null, "booker", "archive-booker@test.ru")).getId();
+        var itemId = itemService.create(new ItemDto(null, "Вещь", "Описание", true, null), ownerId).getId();
+        var start = LocalDateTime.now().minusYears(1);
+        jdbcTemplate.update("INSERT INTO booking (start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, 'REJECTED')",
+                start, start.plusDays(1), itemId, bookerId);
+        bookingId = jdbcTemplate.queryForObject("SELECT id FROM booking WHERE booker_id = ?", Long.class, bookerId);
+        archiver.archive();
+    }
+
+    @Test
+    void bookingWasArchived() {
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM booking WHERE id = ?", Integer.class, bookingId));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM booking_archive WHERE id = ?", Integer.class, bookingId));
+    }
+
+    @Test
+    void archivedRejectedBookingIsListed() {
+        assertListed(bookingService.getBookingsByBookerAndState(State.REJECTED, bookerId, 0, 10, null).getContent());
+        assertListed(bookingService.getBookingsByOwnerAndState(State.REJECTED, ownerId, 0, 10, null).getContent());
+    }
+
+    @Test
+    void archivedBookingIsListedInPastAndAll() {
+        assertListed(bookingService.getBookingsByBookerAndState(State.PAST, bookerId, 0, 10, null).getContent());
+        assertListed(bookingService.getBookingsByOwnerAndState(State.ALL, ownerId, 0, 10, null).getContent());
+    }
+
+    private void assertListed(List<BookingDto> bookings) {
+        var ids = bookings.stream().map(BookingDto::getId).collect(Collectors.toList());
+        assertTrue(ids.contains(bookingId), ids::toString);
+    }
+}
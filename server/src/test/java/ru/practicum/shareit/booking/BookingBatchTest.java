@@ -0,0 +1,95 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.support.EmbeddedPostgresDatabase;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Batch booking on PostgreSQL, where the exclusion constraint on {@code booking} catches
+ * overlaps written by another instance.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingBatchTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookerId;
+    private Long itemId;
+    private LocalDateTime start;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.register(registry);
+    }
+
+    @BeforeAll
+    void seed() {
+        var ownerId = userService.create(new UserDto(null, "owner", "batch-owner@test.ru")).getId();
+        bookerId = userService.create(new UserDto(null, "booker", "batch-booker@test.ru")).getId();
+        itemId = itemService.create(new ItemDto(null, "Вещь", "Описание", true, null), ownerId).getId();
+        start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @Test
+    void emptyOrNullInputIsRejected() {
+        assertThrows(ValidationException.class, () -> bookingService.createAll(null, bookerId));
+        assertThrows(ValidationException.class, () -> bookingService.createAll(List.of(), bookerId));
+        var withNull = new ArrayList<BookingInputDto>(Arrays.asList(period(0), null));
+        assertThrows(ValidationException.class, () -> bookingService.createAll(withNull, bookerId));
+    }
+
+    @Test
+    void concurrentOverlapFailsOnlyItsEntry() {
+        // Makes this instance load the item's intervals before another writer adds one.
+        assertNull(bookingService.createAll(List.of(period(20)), bookerId).get(0).getError());
+        jdbcTemplate.update("INSERT INTO booking (start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, 'WAITING')",
+                start.plusDays(10), start.plusDays(10).plusHours(1), itemId, bookerId);
+
+        var result = bookingService.createAll(List.of(period(11), period(10), period(12)), bookerId);
+
+        assertNotNull(result.get(0).getBooking());
+        assertEquals("Бронирование на это время уже есть", result.get(1).getError());
+        assertNull(result.get(1).getBooking());
+        assertNotNull(result.get(2).getBooking());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM booking WHERE id = ?",
+                Integer.class, result.get(2).getBooking().getId()));
+    }
+
+    private BookingInputDto period(int day) {
+        return new BookingInputDto(start.plusDays(day), start.plusDays(day).plusHours(1), itemId);
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.Config;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Books one item from many threads at once with periods that all overlap each other,
+ * so exactly one booking may be stored.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookingConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Test
+    void onlyOneOfConcurrentOverlappingBookingsSucceeds() throws Exception {
+        var owner = userService.create(new UserDto(null, "owner", "concurrency-owner@test.ru"));
+        var item = itemService.create(new ItemDto(null, "Дрель", "Простая дрель", true, null), owner.getId());
+        var bookers = new ArrayList<Long>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userService.create(new UserDto(null, "booker" + i, "concurrency-booker" + i + "@test.ru")).getId());
+        }
+
+        var start = LocalDateTime.now().plusDays(1);
+        var executor = Executors.newFixedThreadPool(THREADS);
+        var ready = new CountDownLatch(THREADS);
+        var go = new CountDownLatch(1);
+        var futures = new ArrayList<Future<MockHttpServletResponse>>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                var bookerId = bookers.get(i);
+                var body = objectMapper.writeValueAsString(
+                        new BookingInputDto(start.plusHours(i % 3), start.plusHours(4 + i % 3), item.getId()));
+                Callable<MockHttpServletResponse> task = () -> {
+                    ready.countDown();
+                    go.await();
+                    return mvc.perform(post("/bookings")
+                                    .header(Config.userHeaderName, bookerId)
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(body))
+                            .andReturn()
+                            .getResponse();
+                };
+                futures.add(executor.submit(task));
+            }
+            ready.await();
+            go.countDown();
+
+            var created = 0;
+            var rejected = new ArrayList<String>();
+            for (Future<MockHttpServletResponse> future : futures) {
+                var response = future.get(30, TimeUnit.SECONDS);
+                if (response.getStatus() == HttpStatus.OK.value()) {
+                    created++;
+                } else {
+                    rejected.add(response.getStatus() + " " + response.getContentAsString(StandardCharsets.UTF_8));
+                }
+            }
+
+            assertEquals(1, created, rejected::toString);
+            assertEquals(THREADS - 1, rejected.size());
+            for (String error : rejected) {
+                assertEquals("404 {\"error\":\"Бронирование на это время уже есть\"}", error);
+            }
+            var stored = bookingService.getBookingsByOwnerAndState(State.ALL, owner.getId(), 0, THREADS, null);
+            assertEquals(1, stored.getContent().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Changes made to {@code booking} behind this instance's interval index, as another instance
+ * would make them, must neither let an overlapping booking in nor reject a free period.
+ * Runs on H2, which has no exclusion constraint to fall back on.
+ */
+@SpringBootTest
+class BookingIntervalIndexTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long bookerId;
+    private Long itemId;
+    private LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        var suffix = UUID.randomUUID();
+        var ownerId = userService.create(new UserDto(null, "owner", "index-owner-" + suffix + "@test.ru")).getId();
+        bookerId = userService.create(new UserDto(null, "booker", "index-booker-" + suffix + "@test.ru")).getId();
+        itemId = itemService.create(new ItemDto(null, "Вещь", "Описание", true, null), ownerId).getId();
+        start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        // Loads the item into the index.
+        assertNull(book(20));
+    }
+
+    @Test
+    void bookingCreatedElsewhereIsNotDoubleBooked() {
+        jdbcTemplate.update("INSERT INTO booking (start_date, end_date, item_id, booker_id, status) VALUES (?, ?, ?, ?, 'WAITING')",
+                start.plusDays(1), start.plusDays(1).plusHours(1), itemId, bookerId);
+        assertEquals("Бронирование на это время уже есть", book(1));
+    }
+
+    @Test
+    void bookingRejectedElsewhereFreesItsPeriod() {
+        assertNull(book(2));
+        jdbcTemplate.update("UPDATE booking SET status = 'REJECTED' WHERE item_id = ? AND start_date = ?", itemId, start.plusDays(2));
+        assertNull(book(2));
+    }
+
+    private String book(int day) {
+        var dto = new BookingInputDto(start.plusDays(day), start.plusDays(day).plusHours(1), itemId);
+        return bookingService.createAll(List.of(dto), bookerId).get(0).getError();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.dto.BookingBatchEntryDto;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.support.RecordingStatementInspector;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the booking lists are read with one query selecting only the {@link BookingDto}
+ * columns, and that the projection returns the same bookings, in the same order, as the
+ * entities they were created from.
+ */
+@SpringBootTest(properties = RecordingStatementInspector.PROPERTY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingListProjectionTest {
+    private static final int DTO_COLUMNS = 12;
+    private static final Pattern COLUMN_ALIAS = Pattern.compile(" as col_\\d+_\\d+_");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository repository;
+
+    private Long ownerId;
+    private Long bookerId;
+    private List<BookingDto> created;
+
+    @BeforeAll
+    void seed() {
+        ownerId = userService.create(new UserDto(null, "owner", "projection-owner@test.ru")).getId();
+        bookerId = userService.create(new UserDto(null, "booker", "projection-booker@test.ru")).getId();
+        var bookings = new ArrayList<BookingInputDto>();
+        var start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < 3; i++) {
+            var itemId = itemService.create(new ItemDto(null, "Вещь " + i, "Описание " + i, true, null), ownerId).getId();
+            for (int j = 0; j < 4; j++) {
+                // Items share start times, so the order also depends on the id tie-break.
+                bookings.add(new BookingInputDto(start.plusDays(j), start.plusDays(j).plusHours(1), itemId));
+            }
+        }
+        created = bookingService.createAll(bookings, bookerId).stream()
+                .map(BookingBatchEntryDto::getBooking)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void ownerListSelectsOnlyDtoColumnsInOrder() {
+        RecordingStatementInspector.clear();
+        var found = repository.findAllByOwnerAndState(ownerId, State.FUTURE, LocalDateTime.now(), null, 0, created.size());
+        assertSingleDtoQuery();
+        assertEquals(expected(), found);
+    }
+
+    @Test
+    void bookerListSelectsOnlyDtoColumnsInOrder() {
+        RecordingStatementInspector.clear();
+        var found = repository.findAllByBookerAndState(bookerId, State.FUTURE, LocalDateTime.now(), null, 0, created.size());
+        assertSingleDtoQuery();
+        assertEquals(expected(), found);
+    }
+
+    private List<BookingDto> expected() {
+        return created.stream()
+                .sorted(Comparator.comparing(BookingDto::getStart).thenComparing(BookingDto::getId).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private static void assertSingleDtoQuery() {
+        var statements = RecordingStatementInspector.getStatements();
+        assertEquals(1, statements.size(), statements::toString);
+        var sql = statements.get(0);
+        var selectList = sql.substring(0, sql.indexOf(" from "));
+        assertEquals(DTO_COLUMNS, COLUMN_ALIAS.matcher(selectList).results().count(), sql);
+    }
+}
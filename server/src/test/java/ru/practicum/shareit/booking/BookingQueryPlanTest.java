@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.practicum.shareit.booking.enums.State;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.support.EmbeddedPostgresDatabase;
+import ru.practicum.shareit.support.RecordingStatementInspector;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks on PostgreSQL that the booker and owner booking listings are planned as index scans
+ * on the secondary indexes from schema.sql, with no sequential scan of {@code booking} or
+ * {@code item}. The SQL is the one Hibernate generates for {@link BookingRepository}, explained
+ * with the parameters it would be executed with over a seeded and analyzed table in an
+ * {@link EmbeddedPostgresDatabase}.
+ */
+@SpringBootTest(properties = RecordingStatementInspector.PROPERTY)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingQueryPlanTest {
+    private static final Pattern SEQUENTIAL_SCAN = Pattern.compile("Seq Scan on (booking|item)\\b");
+
+    private static final int USERS = 1_000;
+    private static final int ITEMS = 5_000;
+    private static final int BOOKINGS = 200_000;
+    private static final int LIMIT = 11;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository repository;
+
+    private long userId;
+    private LocalDateTime now;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresDatabase.register(registry);
+    }
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (name, email) SELECT 'plan' || g, 'plan' || g || '@test.ru' "
+                + "FROM generate_series(1, ?) g", USERS);
+        var firstUser = jdbcTemplate.queryForObject("SELECT min(id) FROM users WHERE email LIKE 'plan%'", Long.class);
+        jdbcTemplate.update("INSERT INTO item (name, description, available, owner_id) "
+                + "SELECT 'item' || g, 'description', true, ? + g % ? FROM generate_series(1, ?) g", firstUser, USERS, ITEMS);
+        var firstItem = jdbcTemplate.queryForObject("SELECT min(id) FROM item WHERE owner_id >= ?", Long.class, firstUser);
+        jdbcTemplate.update("INSERT INTO booking (start_date, end_date, item_id, booker_id, status) "
+                + "SELECT now() - interval '20 days' + (g / ?) * interval '1 day', "
+                + "now() - interval '20 days' + (g / ?) * interval '1 day' + interval '1 hour', "
+                + "? + g % ?, ? + g % ?, CASE WHEN g % 10 = 0 THEN 'WAITING' ELSE 'APPROVED' END "
+                + "FROM generate_series(0, ? - 1) g",
+                ITEMS, ITEMS, firstItem, ITEMS, firstUser, USERS, BOOKINGS);
+        jdbcTemplate.execute("ANALYZE");
+        userId = firstUser + 1;
+        now = LocalDateTime.now();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM booking WHERE booker_id IN (SELECT id FROM users WHERE email LIKE 'plan%')");
+        jdbcTemplate.update("DELETE FROM item WHERE owner_id IN (SELECT id FROM users WHERE email LIKE 'plan%')");
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'plan%'");
+    }
+
+    @Test
+    void bookerFutureUsesBookerStartIndex() {
+        var plan = explain(() -> repository.findAllByBookerAndState(userId, State.FUTURE, now, null, 0, LIMIT),
+                userId, now, LIMIT);
+        assertUsesIndex(plan, "ix_booking_booker_start");
+    }
+
+    @Test
+    void bookerPastUsesBookerIndex() {
+        var plan = explain(() -> repository.findAllByBookerAndState(userId, State.PAST, now, null, 0, LIMIT),
+                userId, now, LIMIT);
+        assertUsesIndex(plan, "ix_booking_booker_");
+    }
+
+    @Test
+    void bookerWaitingUsesBookerIndex() {
+        var plan = explain(() -> repository.findAllByBookerAndState(userId, State.WAITING, now, null, 0, LIMIT),
+                userId, "WAITING", LIMIT);
+        assertUsesIndex(plan, "ix_booking_booker_");
+    }
+
+    @Test
+    void ownerFutureUsesOwnerAndItemStartIndexes() {
+        var plan = explain(() -> repository.findAllByOwnerAndState(userId, State.FUTURE, now, null, 0, LIMIT),
+                userId, now, LIMIT);
+        assertUsesIndex(plan, "ix_item_owner");
+        assertUsesIndex(plan, "ix_booking_item_start");
+    }
+
+    @Test
+    void ownerCurrentUsesOwnerAndItemIndexes() {
+        var plan = explain(() -> repository.findAllByOwnerAndState(userId, State.CURRENT, now, null, 0, LIMIT),
+                userId, now, now, LIMIT);
+        assertUsesIndex(plan, "ix_item_owner");
+        assertUsesIndex(plan, "ix_booking_item_");
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.contains(index), () -> "Expected " + index + " in\n" + plan);
+        assertFalse(SEQUENTIAL_SCAN.matcher(plan).find(), () -> "Unexpected sequential scan in\n" + plan);
+    }
+
+    /**
+     * Runs the query to capture its SQL, then prepares that SQL with the same parameters
+     * and returns the text of {@code EXPLAIN EXECUTE}.
+     */
+    private String explain(Runnable query, Object... parameters) {
+        RecordingStatementInspector.clear();
+        query.run();
+        var statements = RecordingStatementInspector.getStatements();
+        assertEquals(1, statements.size(), statements::toString);
+
+        var sql = new StringBuilder();
+        var index = 0;
+        for (char c : statements.get(0).toCharArray()) {
+            if (c == '?') {
+                sql.append('$').append(++index);
+            } else {
+                sql.append(c);
+            }
+        }
+        assertEquals(parameters.length, index, sql::toString);
+        var arguments = new ArrayList<String>();
+        for (Object parameter : parameters) {
+            arguments.add(parameter instanceof Number ? parameter.toString() : "'" + parameter + "'");
+        }
+
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (var statement = connection.createStatement()) {
+                statement.execute("PREPARE plan_query AS " + sql);
+                try {
+                    var lines = new ArrayList<String>();
+                    try (ResultSet rows = statement.executeQuery("EXPLAIN EXECUTE plan_query(" + String.join(", ", arguments) + ")")) {
+                        while (rows.next()) {
+                            lines.add(rows.getString(1));
+                        }
+                    }
+                    return String.join("\n", lines);
+                } finally {
+                    statement.execute("DEALLOCATE plan_query");
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import ru.practicum.shareit.Config;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Clients that stop reading their stream must not hold up delivery to the others, however many of them
+ * there are: here more of them than the container has worker threads fill their connections, and a
+ * client that reads still gets its event at once.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=" + EventBusTest.WORKER_THREADS, "shareit.events.buffer-size=1000"})
+class EventBusTest {
+    static final int WORKER_THREADS = 2;
+    private static final String TOPIC = "bookings";
+    private static final int LARGE_EVENT_SIZE = 1024 * 1024;
+    private static final int LARGE_EVENTS = 32;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EventBus eventBus;
+
+    @Autowired
+    private UserService userService;
+
+    private final List<Socket> slowClients = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Socket socket : slowClients) {
+            socket.close();
+        }
+    }
+
+    @Test
+    void slowSubscribersDoNotDelayOthers() throws IOException {
+        var slowUserId = createUser();
+        var fastUserId = createUser();
+        for (int i = 0; i <= WORKER_THREADS; i++) {
+            slowClients.add(subscribeWithoutReading(slowUserId));
+        }
+        var fast = subscribe(fastUserId);
+        var largeEvent = "x".repeat(LARGE_EVENT_SIZE);
+
+        assertTimeoutPreemptively(java.time.Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < LARGE_EVENTS; i++) {
+                eventBus.publish(TOPIC, slowUserId, "LARGE", largeEvent);
+            }
+            eventBus.publish(TOPIC, fastUserId, "SMALL", "ok");
+            assertEquals("event:SMALL", nextEvent(fast));
+            assertEquals("data:\"ok\"", fast.readLine());
+        });
+        assertTrue(eventBus.hasSubscribers(TOPIC, slowUserId));
+    }
+
+    private Long createUser() {
+        return userService.create(new UserDto(null, "user", "events-" + UUID.randomUUID() + "@test.ru")).getId();
+    }
+
+    /**
+     * Opens a stream with a small receive buffer and reads only up to the first comment, so the
+     * subscription is known to be registered before the connection fills up.
+     */
+    private Socket subscribeWithoutReading(Long userId) throws IOException {
+        var socket = new Socket();
+        socket.setReceiveBufferSize(4096);
+        socket.connect(new java.net.InetSocketAddress("localhost", port));
+        var request = "GET /bookings/owner/stream HTTP/1.1\r\nHost: localhost\r\n"
+                + Config.userHeaderName + ": " + userId + "\r\n\r\n";
+        socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+        socket.getOutputStream().flush();
+        var input = socket.getInputStream();
+        var received = new StringBuilder();
+        while (!received.toString().contains(":subscribed")) {
+            var next = input.read();
+            if (next < 0) {
+                throw new IOException("Stream closed before subscribing: " + received);
+            }
+            received.append((char) next);
+        }
+        return socket;
+    }
+
+    private BufferedReader subscribe(Long userId) throws IOException {
+        var connection = (HttpURLConnection) new URL("http://localhost:" + port + "/bookings/owner/stream").openConnection();
+        connection.setRequestProperty(Config.userHeaderName, String.valueOf(userId));
+        connection.setReadTimeout(10_000);
+        var reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+        assertEquals(":subscribed", reader.readLine());
+        return reader;
+    }
+
+    private static String nextEvent(BufferedReader reader) throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && !line.startsWith("event:"));
+        return line;
+    }
+}
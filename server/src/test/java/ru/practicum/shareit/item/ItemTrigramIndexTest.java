@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemTrigramIndex;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Items changed behind the trigram index, as another instance would change them, show up after
+ * a refresh, and results then come in the same order as from the {@code LIKE} query.
+ */
+@SpringBootTest(properties = "shareit.item.search.mode=TRIGRAM")
+class ItemTrigramIndexTest {
+    @Autowired
+    private ItemTrigramIndex index;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private String word;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userService.create(new UserDto(null, "owner", "trigram-" + UUID.randomUUID() + "@test.ru")).getId();
+        word = "w" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @Test
+    void itemsChangedElsewhereAreFoundAfterRefresh() {
+        var removedId = create("removed");
+        jdbcTemplate.update("INSERT INTO item (name, description, available, owner_id) VALUES (?, 'elsewhere', TRUE, ?)",
+                word, ownerId);
+        jdbcTemplate.update("DELETE FROM item WHERE id = ?", removedId);
+        assertEquals(List.of(removedId), searchIds());
+
+        index.refresh();
+
+        var found = searchIds();
+        assertEquals(1, found.size());
+        assertTrue(found.get(0) > removedId);
+    }
+
+    @Test
+    void resultsFollowIdOrder() {
+        var first = create("first");
+        var second = create("second");
+        var third = create("third");
+        itemService.patch(new ItemDto(null, null, null, false, null), first, ownerId);
+        itemService.patch(new ItemDto(null, null, null, true, null), first, ownerId);
+        assertEquals(List.of(first, second, third), searchIds());
+
+        index.refresh();
+
+        assertEquals(List.of(first, second, third), searchIds());
+        assertEquals(searchIds(), itemRepository.findByText(word, PageRequest.of(0, 10)).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList()));
+    }
+
+    private Long create(String description) {
+        return itemService.create(new ItemDto(null, word, description, true, null), ownerId).getId();
+    }
+
+    private List<Long> searchIds() {
+        return index.search(word, 0, 10).stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rows written elsewhere and committed only after a row with a higher id was read by a refresh,
+ * as a slow transaction of another instance would do it, must still reach the matcher.
+ */
+@SpringBootTest
+class ItemRequestMatcherRefreshTest {
+    private final Random random = new Random();
+
+    @Autowired
+    private ItemRequestMatcher matcher;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Long requestorId;
+    private Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        requestorId = createUser();
+        ownerId = createUser();
+    }
+
+    @Test
+    void lateRequestIsIndexed() throws SQLException {
+        var description = description();
+        try (var late = dataSource.getConnection()) {
+            late.setAutoCommit(false);
+            var lateId = insert(late, "INSERT INTO item_request (description, requestor_id, created) VALUES ('"
+                    + description + "', " + requestorId + ", CURRENT_TIMESTAMP)");
+            jdbcTemplate.update("INSERT INTO item_request (description, requestor_id, created) VALUES (?, ?, ?)",
+                    description(), requestorId, LocalDateTime.now());
+            matcher.refresh();
+            late.commit();
+            matcher.refresh();
+            assertTrue(matchedIds(description).contains(lateId));
+        }
+    }
+
+    @Test
+    void requestAnsweredLateIsDropped() throws SQLException {
+        var description = description();
+        jdbcTemplate.update("INSERT INTO item_request (description, requestor_id, created) VALUES (?, ?, ?)",
+                description, requestorId, LocalDateTime.now());
+        var requestId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM item_request", Long.class);
+        matcher.refresh();
+        assertTrue(matchedIds(description).contains(requestId));
+        try (var late = dataSource.getConnection()) {
+            late.setAutoCommit(false);
+            insert(late, "INSERT INTO item (name, description, available, owner_id, item_request_id) VALUES "
+                    + "('answer', 'answer', TRUE, " + ownerId + ", " + requestId + ")");
+            jdbcTemplate.update("INSERT INTO item (name, description, available, owner_id) VALUES ('other', 'other', TRUE, ?)", ownerId);
+            matcher.refresh();
+            late.commit();
+            matcher.refresh();
+            assertFalse(matchedIds(description).contains(requestId));
+        }
+    }
+
+    private List<Long> matchedIds(String description) {
+        return matcher.match(description, null, ownerId).stream()
+                .map(ItemRequestMatcher.Match::getRequestId)
+                .collect(Collectors.toList());
+    }
+
+    private static Long insert(Connection connection, String sql) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS);
+            try (var keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    private Long createUser() {
+        return userService.create(new UserDto(null, "user", "matcher-" + UUID.randomUUID() + "@test.ru")).getId();
+    }
+
+    /**
+     * Three random words, so the request shares no token with the others.
+     */
+    private String description() {
+        var words = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 8; j++) {
+                words.append((char) ('a' + random.nextInt(26)));
+            }
+            words.append(' ');
+        }
+        return words.toString().trim();
+    }
+}
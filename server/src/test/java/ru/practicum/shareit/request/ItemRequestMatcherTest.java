@@ -0,0 +1,142 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the prefix filter of {@link ItemRequestMatcher}: although a request is indexed under only
+ * some of its tokens, every text sharing the required number of its tokens finds it, whatever the
+ * token frequencies were when it was indexed, and no text sharing fewer tokens does.
+ */
+class ItemRequestMatcherTest {
+    private static final double MIN_OVERLAP = 0.5;
+    private static final int STEM_LENGTH = 4;
+    private static final int VOCABULARY = 40;
+    private static final int REQUESTS = 300;
+    private static final long OWNER_ID = 1L;
+    private static final long REQUESTOR_ID = 2L;
+
+    private final Random random = new Random(42);
+    private final List<String> vocabulary = new ArrayList<>();
+    private final Map<Long, List<String>> requests = new HashMap<>();
+    private ItemRequestMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        matcher = new ItemRequestMatcher(null, MIN_OVERLAP, STEM_LENGTH);
+        for (int i = 0; i < VOCABULARY; i++) {
+            vocabulary.add(word(i));
+        }
+        for (long id = 1; id <= REQUESTS; id++) {
+            var words = new ArrayList<String>();
+            var size = 1 + random.nextInt(8);
+            while (words.size() < size) {
+                // Squaring skews the choice towards the first words, so token frequencies differ widely.
+                var word = vocabulary.get((int) (Math.pow(random.nextDouble(), 2) * VOCABULARY));
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+            }
+            requests.put(id, words);
+            matcher.put(new ItemRequest(id, String.join(" ", words), new User(REQUESTOR_ID, "requestor", "r@test.ru"),
+                    LocalDateTime.now(), null));
+        }
+    }
+
+    @Test
+    void everyTextSharingRequiredTokensFindsTheRequest() {
+        for (Map.Entry<Long, List<String>> request : requests.entrySet()) {
+            var words = request.getValue();
+            var required = required(words.size());
+            for (int attempt = 0; attempt < 20; attempt++) {
+                var shared = sample(words, required + random.nextInt(words.size() - required + 1));
+                var name = String.join(" ", shared.subList(0, shared.size() / 2));
+                var description = String.join(" ", shared.subList(shared.size() / 2, shared.size())) + " " + noise();
+                assertTrue(matchedIds(name, description).contains(request.getKey()),
+                        () -> "Request " + words + " not found by " + shared);
+            }
+        }
+    }
+
+    @Test
+    void textSharingFewerTokensDoesNotFindTheRequest() {
+        for (Map.Entry<Long, List<String>> request : requests.entrySet()) {
+            var words = request.getValue();
+            var shared = sample(words, required(words.size()) - 1);
+            assertFalse(matchedIds(String.join(" ", shared), null).contains(request.getKey()),
+                    () -> "Request " + words + " found by " + shared);
+        }
+    }
+
+    @Test
+    void removedRequestsAreNotFoundAndOthersStillAre() {
+        for (long id = 1; id <= REQUESTS; id += 2) {
+            matcher.remove(id);
+        }
+        for (Map.Entry<Long, List<String>> request : requests.entrySet()) {
+            var found = matchedIds(String.join(" ", request.getValue()), null).contains(request.getKey());
+            if (request.getKey() % 2 == 1) {
+                assertFalse(found);
+            } else {
+                assertTrue(found);
+            }
+        }
+    }
+
+    @Test
+    void ownRequestsAreNotMatched() {
+        var words = requests.get(1L);
+        var matches = matcher.match(String.join(" ", words), null, REQUESTOR_ID);
+        assertTrue(matches.isEmpty());
+    }
+
+    private List<Long> matchedIds(String name, String description) {
+        return matcher.match(name, description, OWNER_ID).stream()
+                .map(ItemRequestMatcher.Match::getRequestId)
+                .collect(Collectors.toList());
+    }
+
+    private static int required(int tokens) {
+        return Math.max(1, (int) Math.ceil(tokens * MIN_OVERLAP));
+    }
+
+    private List<String> sample(List<String> words, int size) {
+        var shuffled = new ArrayList<>(words);
+        Collections.shuffle(shuffled, random);
+        return shuffled.subList(0, size);
+    }
+
+    /**
+     * Words outside the vocabulary, so they never add to the overlap.
+     */
+    private String noise() {
+        return word(VOCABULARY + random.nextInt(VOCABULARY)) + " " + word(VOCABULARY + random.nextInt(VOCABULARY));
+    }
+
+    /**
+     * Four-letter words, so each one is a token of its own after stemming.
+     */
+    private static String word(int index) {
+        var word = new StringBuilder();
+        for (int i = 0; i < STEM_LENGTH; i++) {
+            word.append((char) ('a' + index % 26));
+            index /= 26;
+        }
+        return word.toString();
+    }
+}
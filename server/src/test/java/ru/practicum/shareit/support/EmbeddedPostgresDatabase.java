@@ -0,0 +1,48 @@
+package ru.practicum.shareit.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A throwaway PostgreSQL server started on a free port the first time a test asks for it and
+ * stopped with the JVM. Tests that depend on PostgreSQL behaviour (query plans, the booking
+ * exclusion constraint) point their context at it from a {@code @DynamicPropertySource}.
+ */
+public final class EmbeddedPostgresDatabase {
+    private static EmbeddedPostgres postgres;
+
+    private EmbeddedPostgresDatabase() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        var server = get();
+        registry.add("spring.datasource.url", () -> server.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.sql.init.platform", () -> "postgresql");
+        registry.add("shareit.item.search.mode", () -> "FULLTEXT");
+    }
+
+    private static synchronized EmbeddedPostgres get() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            var server = postgres;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    server.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        return postgres;
+    }
+}
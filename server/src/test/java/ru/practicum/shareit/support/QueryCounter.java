@@ -0,0 +1,17 @@
+package ru.practicum.shareit.support;
+
+/**
+ * Counts the JDBC statements Hibernate prepares on the calling thread while an action runs.
+ * Needs {@link RecordingStatementInspector#PROPERTY} in the test context.
+ * Statements issued through JdbcTemplate are not seen.
+ */
+public final class QueryCounter {
+    private QueryCounter() {
+    }
+
+    public static long count(Runnable action) {
+        RecordingStatementInspector.clear();
+        action.run();
+        return RecordingStatementInspector.getStatements().size();
+    }
+}
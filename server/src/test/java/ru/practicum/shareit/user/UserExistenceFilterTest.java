@@ -0,0 +1,77 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.support.RecordingStatementInspector;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserExistenceFilter;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.support.QueryCounter.count;
+
+/**
+ * Users created and removed straight in the database, as another instance would do it, must be
+ * reported correctly, while ids that cannot exist are rejected without looking them up.
+ * The highest id is read again on every check here ({@code max-id-ttl=PT0S}).
+ */
+@SpringBootTest(properties = {RecordingStatementInspector.PROPERTY, "shareit.user.existence.max-id-ttl=PT0S"})
+class UserExistenceFilterTest {
+    @Autowired
+    private UserExistenceFilter filter;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void removedUserBelowTrustedIdsIsRejectedWithoutLookup() {
+        var id = create();
+        create();
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+        filter.refresh();
+        filter.refresh();
+        assertEquals(0, count(() -> assertFalse(filter.exists(id))));
+    }
+
+    @Test
+    void idAboveHighestIdOnlyReadsTheMaximum() {
+        var id = create() + 1_000;
+        assertEquals(1, count(() -> assertFalse(filter.exists(id))));
+    }
+
+    @Test
+    void userCreatedElsewhereIsFound() {
+        filter.refresh();
+        filter.refresh();
+        var id = insert();
+        assertTrue(filter.exists(id));
+        assertEquals(0, count(() -> assertTrue(filter.exists(id))));
+    }
+
+    @Test
+    void userRemovedElsewhereIsForgottenOnRefresh() {
+        var id = create();
+        assertTrue(filter.exists(id));
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", id);
+        filter.refresh();
+        assertFalse(filter.exists(id));
+    }
+
+    private Long create() {
+        return userService.create(new UserDto(null, "user", "existence-" + UUID.randomUUID() + "@test.ru")).getId();
+    }
+
+    private Long insert() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('user', ?)", "existence-" + UUID.randomUUID() + "@test.ru");
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+    }
+}